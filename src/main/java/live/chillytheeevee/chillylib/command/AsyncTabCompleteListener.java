@@ -0,0 +1,105 @@
+package live.chillytheeevee.chillylib.command;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import live.chillytheeevee.chillylib.config.Config;
+import live.chillytheeevee.chillylib.config.ConfigKey;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+/**
+ * Completes the arguments of a plugin's {@link BaseCommand} through Paper's {@link AsyncTabCompleteEvent}, which Paper
+ * fires off the main thread before falling back to completing commands on the main thread. Only arguments with an
+ * {@link live.chillytheeevee.chillylib.command.subcommand.AsyncSuggestionProvider} are handled here. If their
+ * suggestions are not ready within the configured timeout or fail, then the event is left unhandled and the arguments
+ * are completed on the main thread instead.
+ * <p>
+ * Waiting for the suggestions blocks the thread that fired the event, which is the thread handling the player's
+ * connection. The timeout should therefore stay short. Events fired on the main thread are never handled here, since
+ * waiting on them would stall the server.
+ */
+public class AsyncTabCompleteListener implements Listener {
+
+    private static final String PAPER_EVENT_CLASS = "com.destroystokyo.paper.event.server.AsyncTabCompleteEvent";
+    private static final String ASYNC_SUGGESTION_TIMEOUT_KEY = "async_suggestion_timeout";
+
+    private final Plugin plugin;
+    private final BaseCommand baseCommand;
+    private final Set<String> labels;
+    private final ConfigKey<Integer> timeoutMillis;
+
+    /**
+     * Constructs a new AsyncTabCompleteListener for the given {@link BaseCommand}.
+     * @param plugin The plugin the BaseCommand belongs to.
+     * @param baseCommand The BaseCommand to complete arguments of.
+     * @param labels The name and every alias of the BaseCommand.
+     * @param baseCommandConfig The {@link Config} of the BaseCommand, which holds the timeout in milliseconds under the
+     *                          "async_suggestion_timeout" key.
+     */
+    public AsyncTabCompleteListener(Plugin plugin, BaseCommand baseCommand, List<String> labels,
+                                    Config baseCommandConfig) {
+        this.plugin = plugin;
+        this.baseCommand = baseCommand;
+        this.labels = new HashSet<>();
+        for (String label : labels) {
+            String folded = label.toLowerCase(Locale.ROOT);
+            this.labels.add(folded);
+            this.labels.add(plugin.getName().toLowerCase(Locale.ROOT) + ":" + folded);
+        }
+        this.timeoutMillis = baseCommandConfig.intKey(ASYNC_SUGGESTION_TIMEOUT_KEY);
+    }
+
+    /**
+     * Returns whether the server fires Paper's {@link AsyncTabCompleteEvent}, which this listener requires.
+     * @return true if the server fires AsyncTabCompleteEvent.
+     */
+    public static boolean isSupported() {
+        try {
+            Class.forName(PAPER_EVENT_CLASS);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @EventHandler
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (!event.isAsynchronous() || event.isHandled() || !event.isCommand())
+            return;
+
+        String buffer = event.getBuffer();
+        if (buffer.startsWith("/"))
+            buffer = buffer.substring(1);
+        int labelEnd = buffer.indexOf(' ');
+        if ((labelEnd < 0) || !labels.contains(buffer.substring(0, labelEnd).toLowerCase(Locale.ROOT)))
+            return;
+
+        String[] args = buffer.substring(labelEnd + 1).split(" ", -1);
+        CompletableFuture<List<String>> completions = baseCommand.completeAsync(event.getSender(), args);
+        if (completions == null)
+            return;
+
+        try {
+            event.setCompletions(completions.get(timeoutMillis.get(), TimeUnit.MILLISECONDS));
+            event.setHandled(true);
+        } catch (TimeoutException e) {
+            completions.cancel(false);
+        } catch (ExecutionException | CancellationException e) {
+            plugin.getLogger().log(Level.WARNING, "Async tab completion of /" + buffer
+                    + " failed, completing it on the main thread instead", (e.getCause() != null) ? e.getCause() : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package live.chillytheeevee.chillylib.command;
 
+import live.chillytheeevee.chillylib.command.subcommand.AsyncCommandExecutor;
+import live.chillytheeevee.chillylib.command.subcommand.Completions;
 import live.chillytheeevee.chillylib.command.subcommand.Subcommand;
+import live.chillytheeevee.chillylib.command.subcommand.SubcommandIndex;
 import live.chillytheeevee.chillylib.config.Config;
+import live.chillytheeevee.chillylib.config.ConfigKey;
 import live.chillytheeevee.chillylib.utility.ChatUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
@@ -9,9 +13,9 @@ import org.bukkit.command.TabExecutor;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A {@link TabExecutor} that is called for a plugin's base command. This command is the underlying internal base
@@ -21,22 +25,34 @@ public class BaseCommand implements TabExecutor {
 
     private static final String WARNING_INVALID_COMMAND_KEY = "messages.warning_invalid_command";
     private static final String WARNING_NO_PERMISSION_KEY = "messages.warning_no_permission";
+    private static final String MAX_SUGGESTIONS_KEY = "max_suggestions";
 
     // Dependencies
     private final Plugin plugin;
-    private final Config baseCommandConfig;
-    private final Map<String, Subcommand> commandMap;
+    private final SubcommandIndex subcommandIndex;
+
+    // Messages
+    private final ConfigKey<String> invalidCommandMessage;
+    private final ConfigKey<String> noPermissionMessage;
+
+    // Settings
+    private final ConfigKey<Integer> maxSuggestions;
 
     /**
-     * Constructs BaseCommand for the given plugin using the map of commands and the plugin's baseCommandConfig.
+     * Constructs BaseCommand for the given plugin using the index of commands and the plugin's baseCommandConfig.
      * @param plugin The plugin to create a BaseCommand for.
-     * @param commandMap A map of all subcommands registered for the plugin.
+     * @param subcommandIndex The index of all subcommands registered for the plugin.
      * @param baseCommandConfig The {@link Config} for this BaseCommand.
      */
-    public BaseCommand(Plugin plugin, Map<String, Subcommand> commandMap, Config baseCommandConfig) {
+    public BaseCommand(Plugin plugin, SubcommandIndex subcommandIndex, Config baseCommandConfig) {
         this.plugin = plugin;
-        this.baseCommandConfig = baseCommandConfig;
-        this.commandMap = commandMap;
+        this.subcommandIndex = subcommandIndex;
+        this.invalidCommandMessage = baseCommandConfig.key(WARNING_INVALID_COMMAND_KEY,
+                (section, path) -> ChatUtils.chat(section.getString(path)));
+        this.noPermissionMessage = baseCommandConfig.key(WARNING_NO_PERMISSION_KEY,
+                (section, path) -> ChatUtils.chat(section.getString(path)));
+        this.maxSuggestions = baseCommandConfig.key(MAX_SUGGESTIONS_KEY,
+                (section, path) -> (section.getInt(path) > 0) ? section.getInt(path) : Integer.MAX_VALUE);
     }
 
     @Override
@@ -67,40 +83,64 @@ public class BaseCommand implements TabExecutor {
             return true;
         }
 
-        for (String subCommand : commandMap.keySet()) {
-            if (args[0].equalsIgnoreCase(subCommand)) {
-                boolean hasPermission = false;
-                for (String permission : commandMap.get(subCommand).getRequiredPermission()){
-                    if (sender.hasPermission(permission)){
-                        hasPermission = true;
-                        break;
-                    }
-                }
-                if (!hasPermission){
-                    sender.sendMessage(ChatUtils.chat(baseCommandConfig.get().getString(WARNING_NO_PERMISSION_KEY)));
-                    return true;
-                }
-                if (!commandMap.get(subCommand).onCommand(sender, args)) {
-                    sender.sendMessage(ChatUtils.chat("&4" + commandMap.get(subCommand).getUsageMessage()));
-                }
-                return true;
-            }
+        Subcommand subcommand = subcommandIndex.get(args[0]);
+        if (subcommand == null) {
+            sender.sendMessage(invalidCommandMessage.get());
+            return true;
+        }
+
+        if (!subcommand.hasPermission(sender)){
+            sender.sendMessage(noPermissionMessage.get());
+            return true;
+        }
+
+        AsyncCommandExecutor asyncExecutor = subcommandIndex.getAsyncExecutor();
+        if (subcommand.isAsync() && (asyncExecutor != null)) {
+            asyncExecutor.execute(sender, subcommand, args);
+            return true;
+        }
+        if (!subcommand.onCommand(sender, args)) {
+            sender.sendMessage(ChatUtils.chat("&4" + subcommand.getUsageMessage()));
         }
-        sender.sendMessage(ChatUtils.chat(baseCommandConfig.get().getString(WARNING_INVALID_COMMAND_KEY)));
         return true;
     }
 
     @Override
     public List<String> onTabComplete(@NotNull CommandSender sender, org.bukkit.command.@NotNull Command cmd, @NotNull String name, String[] args) {
         if (args.length == 1) {
-            return new ArrayList<>(commandMap.keySet());
+            Completions completions = new Completions(args[0], maxSuggestions.get());
+            subcommandIndex.complete(sender, completions);
+            return completions.getSuggestions();
         } else if (args.length > 1) {
-            for (String arg : commandMap.keySet()) {
-                if (args[0].equalsIgnoreCase(arg)) {
-                    return commandMap.get(arg).onTabComplete(sender, args);
-                }
-            }
+            Subcommand subcommand = subcommandIndex.get(args[0]);
+            if ((subcommand != null) && subcommand.hasPermission(sender))
+                return subcommand.complete(sender, args, maxSuggestions.get());
         }
-        return null;
+        return Collections.emptyList();
+    }
+
+    /**
+     * Starts computing the tab completions of the given arguments off the main thread, if the argument being typed
+     * belongs to a {@link Subcommand} that the sender may use and that has an
+     * {@link live.chillytheeevee.chillylib.command.subcommand.AsyncSuggestionProvider} for that argument. Names of
+     * Subcommands are always completed on the main thread, since that is just a lookup within an index.
+     * <p>
+     * This method may be called off the main thread, where permissions cannot be checked safely. Whether the sender may
+     * use the Subcommand is therefore only taken from the
+     * {@link live.chillytheeevee.chillylib.command.subcommand.PermissionCache}, which holds results checked on the main
+     * thread. Without a cached result, the arguments are left to the main thread.
+     * @param sender The CommandSender that is typing out the command.
+     * @param args The arguments typed after the base command, the last of which is being completed.
+     * @return A future completing with the tab completions, or null if the arguments must be completed through
+     * {@link BaseCommand#onTabComplete(CommandSender, org.bukkit.command.Command, String, String[])}.
+     */
+    public CompletableFuture<List<String>> completeAsync(CommandSender sender, String[] args) {
+        if (args.length < 2)
+            return null;
+
+        Subcommand subcommand = subcommandIndex.get(args[0]);
+        if ((subcommand == null) || !Boolean.TRUE.equals(subcommand.getCachedPermission(sender)))
+            return null;
+        return subcommand.completeAsync(sender, args, maxSuggestions.get());
     }
 }
@@ -0,0 +1,104 @@
+package live.chillytheeevee.chillylib.command.argument;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.Arrays;
+
+/**
+ * The sender and the parsed arguments of a command being executed through an {@link ArgumentTree}. Arguments are
+ * looked up by the name they were declared with. A command rarely has more than a handful of arguments, so they are
+ * kept in two small arrays rather than a Map.
+ */
+public final class ArgumentContext {
+
+	private final CommandSender sender;
+	private final String[] args;
+	private String[] names = new String[4];
+	private Object[] values = new Object[4];
+	private int size;
+	private String error;
+
+	ArgumentContext(CommandSender sender, String[] args) {
+		this.sender = sender;
+		this.args = args;
+	}
+
+	/**
+	 * Returns the CommandSender that invoked the command.
+	 * @return the CommandSender that invoked the command.
+	 */
+	public CommandSender getSender() {
+		return sender;
+	}
+
+	/**
+	 * Returns the unparsed arguments passed to the command. The first element is the name of the Subcommand.
+	 * @return the unparsed arguments passed to the command.
+	 */
+	public String[] getArgs() {
+		return args;
+	}
+
+	/**
+	 * Returns whether the argument with the given name was given.
+	 * @param name The name of the argument.
+	 * @return true if the argument with the given name was given.
+	 */
+	public boolean has(String name) {
+		return indexOf(name) >= 0;
+	}
+
+	/**
+	 * Returns the parsed value of the argument with the given name.
+	 * @param name The name of the argument.
+	 * @param <T> The type of the argument, which must match the type it was declared with.
+	 * @return the parsed value of the argument, or null if it was not given.
+	 */
+	public <T> T get(String name) {
+		return getOrDefault(name, null);
+	}
+
+	/**
+	 * Returns the parsed value of the argument with the given name, or the given default if the argument was not
+	 * given, which is useful for arguments after which the command may already be executed.
+	 * @param name The name of the argument.
+	 * @param defaultValue The value to return if the argument was not given.
+	 * @param <T> The type of the argument, which must match the type it was declared with.
+	 * @return the parsed value of the argument, or the given default if it was not given.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getOrDefault(String name, T defaultValue) {
+		int index = indexOf(name);
+		return (index >= 0) ? (T) values[index] : defaultValue;
+	}
+
+	void put(String name, Object value) {
+		if (size == names.length) {
+			names = Arrays.copyOf(names, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		names[size] = name;
+		values[size] = value;
+		size++;
+	}
+
+	/**
+	 * Returns the message explaining why the last argument could not be parsed.
+	 * @return the message explaining why the last argument could not be parsed, or null if it matched no argument.
+	 */
+	String getError() {
+		return error;
+	}
+
+	void setError(String error) {
+		this.error = error;
+	}
+
+	private int indexOf(String name) {
+		for (int i = 0; i < size; i++) {
+			if (names[i].equals(name))
+				return i;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,15 @@
+package live.chillytheeevee.chillylib.command.argument;
+
+/**
+ * Executes a command once its arguments have been parsed by an {@link ArgumentTree}.
+ */
+@FunctionalInterface
+public interface ArgumentExecutor {
+
+	/**
+	 * Executes the command with the given parsed arguments.
+	 * @param context The sender and the parsed arguments of the command.
+	 * @return true if the command was used properly, false to show its usage message.
+	 */
+	boolean execute(ArgumentContext context);
+}
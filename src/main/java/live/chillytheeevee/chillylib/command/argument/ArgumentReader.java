@@ -0,0 +1,83 @@
+package live.chillytheeevee.chillylib.command.argument;
+
+/**
+ * A cursor over the arguments passed to a command. The arguments have already been split at spaces by the server, so
+ * reading an argument is just advancing an index, and only types spanning several arguments, like quoted strings,
+ * ever build a new String.
+ */
+public final class ArgumentReader {
+
+	private final String[] args;
+	private final int end;
+	private int cursor;
+
+	/**
+	 * Constructs a new ArgumentReader over the given arguments, starting at the given index.
+	 * @param args The arguments passed to the command.
+	 * @param start The index of the first argument to read.
+	 */
+	public ArgumentReader(String[] args, int start) {
+		this(args, start, args.length);
+	}
+
+	/**
+	 * Constructs a new ArgumentReader over the given range of arguments.
+	 * @param args The arguments passed to the command.
+	 * @param start The index of the first argument to read.
+	 * @param end The index after the last argument to read.
+	 */
+	public ArgumentReader(String[] args, int start, int end) {
+		this.args = args;
+		this.end = end;
+		this.cursor = start;
+	}
+
+	/**
+	 * Returns whether there is another argument to read.
+	 * @return true if there is another argument to read.
+	 */
+	public boolean hasNext() {
+		return cursor < end;
+	}
+
+	/**
+	 * Returns the next argument without consuming it.
+	 * @return the next argument, or null if all arguments have been read.
+	 */
+	public String peek() {
+		return hasNext() ? args[cursor] : null;
+	}
+
+	/**
+	 * Consumes and returns the next argument.
+	 * @return the next argument, or null if all arguments have been read.
+	 */
+	public String next() {
+		return hasNext() ? args[cursor++] : null;
+	}
+
+	/**
+	 * Returns the number of arguments that have not been read yet.
+	 * @return the number of arguments that have not been read yet.
+	 */
+	public int remaining() {
+		return end - cursor;
+	}
+
+	/**
+	 * Returns the index of the next argument, which can be passed to {@link ArgumentReader#setCursor(int)} to read
+	 * the same arguments again.
+	 * @return the index of the next argument.
+	 */
+	public int getCursor() {
+		return cursor;
+	}
+
+	/**
+	 * Moves this reader to the argument at the given index.
+	 * @param cursor The index of the next argument to read.
+	 */
+	public void setCursor(int cursor) {
+		this.cursor = cursor;
+	}
+}
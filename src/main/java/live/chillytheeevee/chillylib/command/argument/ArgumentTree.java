@@ -0,0 +1,264 @@
+package live.chillytheeevee.chillylib.command.argument;
+
+import live.chillytheeevee.chillylib.command.subcommand.Completions;
+import live.chillytheeevee.chillylib.command.subcommand.PrefixIndex;
+import live.chillytheeevee.chillylib.command.subcommand.SuggestionProvider;
+import live.chillytheeevee.chillylib.utility.ChatUtils;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The arguments of a {@link live.chillytheeevee.chillylib.command.subcommand.Subcommand}, declared as a tree of
+ * literals and typed arguments and compiled once. Executing the tree walks the arguments once, dispatching on literals,
+ * parsing and validating typed arguments, and finally running the {@link ArgumentExecutor} of the node the arguments
+ * end at. Tab completion walks the tree the same way, and the usage of every branch is generated from the tree.
+ * <pre>
+ * ArgumentTree.builder()
+ *         .then(ArgumentTree.literal("give")
+ *                 .then(ArgumentTree.argument("player", ArgumentTypes.player())
+ *                         .then(ArgumentTree.argument("amount", ArgumentTypes.integer(1, 64))
+ *                                 .executes(context -&gt; give(context.get("player"), context.get("amount"))))))
+ *         .build();
+ * </pre>
+ * A node with an ArgumentExecutor may be the last argument of a command even if it has children, which makes the
+ * arguments below it optional. Literals are matched ignoring case through a single hash lookup, and take precedence over
+ * typed arguments, which are tried in the order they were declared until one of them parses.
+ */
+public final class ArgumentTree {
+
+	private final Node root;
+	private final String usage;
+
+	private ArgumentTree(Node root) {
+		this.root = root;
+		this.usage = usage(root, false);
+	}
+
+	/**
+	 * Returns a new Builder for the root of an ArgumentTree, which stands for the name of the Subcommand itself.
+	 * @return a new Builder for the root of an ArgumentTree.
+	 */
+	public static Builder builder() {
+		return new Builder(null, null);
+	}
+
+	/**
+	 * Returns a new Builder for a literal, which is an argument that must be typed exactly as given, ignoring case.
+	 * @param name The literal.
+	 * @return a new Builder for a literal.
+	 */
+	public static Builder literal(String name) {
+		return new Builder(Objects.requireNonNull(name), null);
+	}
+
+	/**
+	 * Returns a new Builder for a typed argument, whose parsed value is available from the {@link ArgumentContext}
+	 * under the given name.
+	 * @param name The name of the argument, which is also shown in the usage.
+	 * @param type The type of the argument.
+	 * @return a new Builder for a typed argument.
+	 */
+	public static Builder argument(String name, ArgumentType<?> type) {
+		return new Builder(Objects.requireNonNull(name), Objects.requireNonNull(type));
+	}
+
+	/**
+	 * Parses the given arguments and executes the {@link ArgumentExecutor} of the node they end at. If an argument
+	 * cannot be parsed, the reason is sent to the sender.
+	 * @param sender The CommandSender who invoked the command.
+	 * @param args The arguments passed to the command. The first element is the name of the Subcommand.
+	 * @return false if the arguments match no branch of this tree or the executor returned false, in which case the
+	 * usage message should be shown, and true otherwise.
+	 */
+	public boolean execute(CommandSender sender, String[] args) {
+		ArgumentContext context = new ArgumentContext(sender, args);
+		ArgumentReader reader = new ArgumentReader(args, 1);
+		Node node = root;
+		while (reader.hasNext()) {
+			node = step(node, sender, reader, context);
+			if (node == null) {
+				if (context.getError() == null)
+					return false;
+
+				sender.sendMessage(ChatUtils.chat(context.getError()));
+				return true;
+			}
+		}
+		return (node.executor != null) && node.executor.execute(context);
+	}
+
+	/**
+	 * Adds the tab completions of the argument the given sender is currently typing, which is the last element of the
+	 * given arguments, to the given {@link Completions}. The arguments before it are parsed to find the node being
+	 * completed, after which the literals below that node are suggested, followed by the suggestions of its typed
+	 * arguments.
+	 * @param sender The CommandSender that is typing out the command.
+	 * @param args The arguments the sender has already typed. The first element is the name of the Subcommand.
+	 * @param completions The Completions to add suggestions to.
+	 */
+	public void complete(CommandSender sender, String[] args, Completions completions) {
+		ArgumentContext context = new ArgumentContext(sender, args);
+		ArgumentReader reader = new ArgumentReader(args, 1, args.length - 1);
+		Node node = root;
+		while (reader.hasNext()) {
+			node = step(node, sender, reader, context);
+			if (node == null)
+				return;
+		}
+
+		node.literalNames.complete(completions);
+		for (Node argument : node.arguments) {
+			if (completions.isFull())
+				return;
+
+			if (argument.suggestions != null)
+				argument.suggestions.suggest(sender, args, completions);
+			else
+				argument.type.suggest(sender, completions);
+		}
+	}
+
+	/**
+	 * Returns the usage of this tree, generated from its nodes, such as
+	 * "give &lt;player&gt; &lt;amount&gt; | clear [&lt;player&gt;]". Typed arguments are enclosed in angle brackets,
+	 * optional arguments in square brackets, and alternatives are separated by vertical bars.
+	 * @return the usage of this tree, without the name of the Subcommand.
+	 */
+	public String getUsage() {
+		return usage;
+	}
+
+	/**
+	 * Returns the child of the given node matching the next arguments of the given reader, consuming them and storing
+	 * the parsed value within the given context. If no child matches, the reader is left where it was, the failure of
+	 * the first typed argument is stored within the context, and null is returned.
+	 */
+	private static Node step(Node node, CommandSender sender, ArgumentReader reader, ArgumentContext context) {
+		int start = reader.getCursor();
+		Node literal = node.literals.get(reader.peek().toLowerCase(Locale.ROOT));
+		if (literal != null) {
+			reader.next();
+			return literal;
+		}
+
+		String error = null;
+		for (Node argument : node.arguments) {
+			ParseResult<?> result = argument.type.parse(sender, reader);
+			if (result.isSuccess()) {
+				context.put(argument.name, result.getValue());
+				return argument;
+			}
+			if (error == null)
+				error = result.getError();
+			reader.setCursor(start);
+		}
+		context.setError(error);
+		return null;
+	}
+
+	private static String usage(Node node, boolean nested) {
+		if (node.children.length == 0)
+			return "";
+
+		StringBuilder builder = new StringBuilder();
+		for (Node child : node.children) {
+			if (builder.length() > 0)
+				builder.append(" | ");
+			builder.append(child.type == null ? child.name : "<" + child.name + ">");
+			if (child.children.length > 0)
+				builder.append(' ').append(usage(child, true));
+		}
+
+		if (node.executor != null)
+			return "[" + builder + "]";
+		return (nested && (node.children.length > 1)) ? "(" + builder + ")" : builder.toString();
+	}
+
+	/**
+	 * Declares a node of an {@link ArgumentTree}: the root, a literal, or a typed argument.
+	 */
+	public static final class Builder {
+
+		private final String name;
+		private final ArgumentType<?> type;
+		private final List<Builder> children = new ArrayList<>();
+		private ArgumentExecutor executor;
+		private SuggestionProvider suggestions;
+
+		private Builder(String name, ArgumentType<?> type) {
+			this.name = name;
+			this.type = type;
+		}
+
+		/**
+		 * Adds the given node as a child of this node, which is matched against the argument after this node.
+		 * @param child The Builder of the child.
+		 * @return this Builder.
+		 */
+		public Builder then(Builder child) {
+			children.add(Objects.requireNonNull(child));
+			return this;
+		}
+
+		/**
+		 * Sets the {@link ArgumentExecutor} run when the arguments of a command end at this node.
+		 * @param executor The ArgumentExecutor of this node.
+		 * @return this Builder.
+		 */
+		public Builder executes(ArgumentExecutor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * Sets the {@link SuggestionProvider} that supplies the tab completions of this typed argument instead of its
+		 * {@link ArgumentType}.
+		 * @param suggestions The SuggestionProvider of this argument.
+		 * @return this Builder.
+		 */
+		public Builder suggests(SuggestionProvider suggestions) {
+			this.suggestions = suggestions;
+			return this;
+		}
+
+		/**
+		 * Compiles the tree below this node, which becomes the root of the returned tree.
+		 * @return the compiled ArgumentTree.
+		 */
+		public ArgumentTree build() {
+			return new ArgumentTree(compile());
+		}
+
+		private Node compile() {
+			Node[] children = new Node[this.children.size()];
+			Map<String, Node> literals = new HashMap<>();
+			List<String> literalNames = new ArrayList<>();
+			List<Node> arguments = new ArrayList<>();
+			for (int i = 0; i < children.length; i++) {
+				Node child = this.children.get(i).compile();
+				children[i] = child;
+				if (child.type == null) {
+					literals.putIfAbsent(child.name.toLowerCase(Locale.ROOT), child);
+					literalNames.add(child.name);
+				} else {
+					arguments.add(child);
+				}
+			}
+			return new Node(name, type, executor, suggestions, children, Map.copyOf(literals),
+					new PrefixIndex(literalNames), arguments.toArray(new Node[0]));
+		}
+	}
+
+	/**
+	 * A compiled node of an ArgumentTree, with its literal children indexed by their case-folded name.
+	 */
+	private record Node(String name, ArgumentType<?> type, ArgumentExecutor executor, SuggestionProvider suggestions,
+						Node[] children, Map<String, Node> literals, PrefixIndex literalNames, Node[] arguments) {
+	}
+}
@@ -0,0 +1,54 @@
+package live.chillytheeevee.chillylib.command.argument;
+
+import live.chillytheeevee.chillylib.command.subcommand.Completions;
+import org.bukkit.command.CommandSender;
+
+import java.util.function.Supplier;
+
+/**
+ * The type of an argument of an {@link ArgumentTree}, which parses the argument and suggests its tab completions. The
+ * common types are created through {@link ArgumentTypes}.
+ * @param <T> The type of the parsed value.
+ */
+public interface ArgumentType<T> {
+
+	/**
+	 * Parses the next argument, or the next several arguments for types that span them, from the given reader. A
+	 * failed parse may leave the reader anywhere, since the {@link ArgumentTree} resets it.
+	 * @param sender The CommandSender that invoked the command.
+	 * @param reader The reader positioned at the argument to parse, which has at least one argument left.
+	 * @return The parsed value, or a failure explaining why the argument is invalid.
+	 */
+	ParseResult<T> parse(CommandSender sender, ArgumentReader reader);
+
+	/**
+	 * Adds the tab completions of this type to the given {@link Completions}, which filter them by the token the sender
+	 * is typing.
+	 * @param sender The CommandSender that is typing the argument.
+	 * @param completions The Completions to add suggestions to.
+	 */
+	default void suggest(CommandSender sender, Completions completions) {
+	}
+
+	/**
+	 * Returns a type that parses and suggests like this type, but reports every invalid argument with the given message,
+	 * such as a message read from a {@link live.chillytheeevee.chillylib.config.Config}.
+	 * @param message Supplies the message of invalid arguments.
+	 * @return a type reporting invalid arguments with the given message.
+	 */
+	default ArgumentType<T> withErrorMessage(Supplier<String> message) {
+		ArgumentType<T> type = this;
+		return new ArgumentType<>() {
+			@Override
+			public ParseResult<T> parse(CommandSender sender, ArgumentReader reader) {
+				ParseResult<T> result = type.parse(sender, reader);
+				return result.isSuccess() ? result : ParseResult.failure(message.get());
+			}
+
+			@Override
+			public void suggest(CommandSender sender, Completions completions) {
+				type.suggest(sender, completions);
+			}
+		};
+	}
+}
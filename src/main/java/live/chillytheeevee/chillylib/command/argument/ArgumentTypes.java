@@ -0,0 +1,249 @@
+package live.chillytheeevee.chillylib.command.argument;
+
+import live.chillytheeevee.chillylib.command.subcommand.Completions;
+import live.chillytheeevee.chillylib.command.subcommand.PrefixIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The common {@link ArgumentType}s. Every type parses its arguments by walking their characters, so invalid arguments
+ * are reported through a failed {@link ParseResult} without throwing and catching exceptions such as
+ * NumberFormatException.
+ */
+public final class ArgumentTypes {
+
+	private static final ArgumentType<String> WORD = (sender, reader) -> ParseResult.success(reader.next());
+	private static final ArgumentType<Integer> INTEGER = integer(Integer.MIN_VALUE, Integer.MAX_VALUE);
+	// Small enough that adding up the parts of a duration can never overflow
+	private static final long MAX_DURATION_AMOUNT = 1_000_000_000L;
+
+	private ArgumentTypes() {
+	}
+
+	/**
+	 * Returns a type parsing any whole number that fits in an int.
+	 * @return a type parsing whole numbers.
+	 */
+	public static ArgumentType<Integer> integer() {
+		return INTEGER;
+	}
+
+	/**
+	 * Returns a type parsing whole numbers within the given bounds.
+	 * @param min The smallest accepted number.
+	 * @param max The largest accepted number.
+	 * @return a type parsing whole numbers within the given bounds.
+	 */
+	public static ArgumentType<Integer> integer(int min, int max) {
+		return (sender, reader) -> {
+			String token = reader.next();
+			long value = parseLong(token, 0, token.length());
+			if (value == Long.MIN_VALUE)
+				return ParseResult.failure("&c" + token + " is not a number.");
+			if ((value < min) || (value > max))
+				return ParseResult.failure("&cExpected a number from " + min + " to " + max + ", but got " + token
+						+ ".");
+			return ParseResult.success((int) value);
+		};
+	}
+
+	/**
+	 * Returns a type parsing the exact name of an online player, ignoring case, and suggesting the names of every
+	 * online player.
+	 * @return a type parsing online players.
+	 */
+	public static ArgumentType<Player> player() {
+		return new ArgumentType<>() {
+			@Override
+			public ParseResult<Player> parse(CommandSender sender, ArgumentReader reader) {
+				String token = reader.next();
+				Player player = Bukkit.getPlayerExact(token);
+				return (player != null) ? ParseResult.success(player)
+						: ParseResult.failure("&cNo player named " + token + " is online.");
+			}
+
+			@Override
+			public void suggest(CommandSender sender, Completions completions) {
+				for (Player player : Bukkit.getOnlinePlayers()) {
+					if (!completions.add(player.getName()))
+						return;
+				}
+			}
+		};
+	}
+
+	/**
+	 * Returns a type parsing the name of a constant of the given enum, ignoring case, and suggesting the names of every
+	 * constant in lower case.
+	 * @param type The class of the enum.
+	 * @param <E> The type of the enum.
+	 * @return a type parsing the constants of the given enum.
+	 */
+	public static <E extends Enum<E>> ArgumentType<E> enumeration(Class<E> type) {
+		Map<String, E> constants = new HashMap<>();
+		List<String> names = new ArrayList<>();
+		for (E constant : type.getEnumConstants()) {
+			String name = constant.name().toLowerCase(Locale.ROOT);
+			constants.put(name, constant);
+			names.add(name);
+		}
+		PrefixIndex index = new PrefixIndex(names);
+
+		return new ArgumentType<>() {
+			@Override
+			public ParseResult<E> parse(CommandSender sender, ArgumentReader reader) {
+				String token = reader.next();
+				E constant = constants.get(token.toLowerCase(Locale.ROOT));
+				return (constant != null) ? ParseResult.success(constant)
+						: ParseResult.failure("&c" + token + " is not one of " + String.join(", ", names) + ".");
+			}
+
+			@Override
+			public void suggest(CommandSender sender, Completions completions) {
+				index.complete(completions);
+			}
+		};
+	}
+
+	/**
+	 * Returns a type parsing durations made of whole numbers followed by a unit, such as "30s", "5m" or "1h30m". The
+	 * units are "s" for seconds, "m" for minutes, "h" for hours, "d" for days and "w" for weeks. While a number is
+	 * being typed, the type suggests the number followed by each unit.
+	 * @return a type parsing durations.
+	 */
+	public static ArgumentType<Duration> duration() {
+		return new ArgumentType<>() {
+			@Override
+			public ParseResult<Duration> parse(CommandSender sender, ArgumentReader reader) {
+				String token = reader.next();
+				Duration duration = parseDuration(token);
+				return (duration != null) ? ParseResult.success(duration)
+						: ParseResult.failure("&c" + token + " is not a duration, such as 30s, 5m or 1h30m.");
+			}
+
+			@Override
+			public void suggest(CommandSender sender, Completions completions) {
+				String token = completions.getToken();
+				if (token.isEmpty() || !Character.isDigit(token.charAt(token.length() - 1)))
+					return;
+
+				for (String unit : new String[]{"s", "m", "h", "d", "w"}) {
+					if (!completions.add(token + unit))
+						return;
+				}
+			}
+		};
+	}
+
+	/**
+	 * Returns a type parsing a single argument as is.
+	 * @return a type parsing a single word.
+	 */
+	public static ArgumentType<String> word() {
+		return WORD;
+	}
+
+	/**
+	 * Returns a type parsing either a single word, or text enclosed in double quotes that may span several arguments,
+	 * such as "Hello there". The quotes are not part of the parsed text, and the arguments within them are joined by
+	 * single spaces.
+	 * @return a type parsing quoted strings.
+	 */
+	public static ArgumentType<String> quotedString() {
+		return (sender, reader) -> {
+			String first = reader.next();
+			if (first.isEmpty() || (first.charAt(0) != '"'))
+				return ParseResult.success(first);
+			if ((first.length() > 1) && (first.charAt(first.length() - 1) == '"'))
+				return ParseResult.success(first.substring(1, first.length() - 1));
+
+			StringBuilder builder = new StringBuilder(first.length() * 4).append(first, 1, first.length());
+			while (reader.hasNext()) {
+				String token = reader.next();
+				builder.append(' ');
+				if (!token.isEmpty() && (token.charAt(token.length() - 1) == '"'))
+					return ParseResult.success(builder.append(token, 0, token.length() - 1).toString());
+				builder.append(token);
+			}
+			return ParseResult.failure("&cMissing closing quote.");
+		};
+	}
+
+	/**
+	 * Returns a type parsing every remaining argument, joined by single spaces. An argument of this type should be the
+	 * last argument of its command.
+	 * @return a type parsing the remaining arguments.
+	 */
+	public static ArgumentType<String> greedyString() {
+		return (sender, reader) -> {
+			String first = reader.next();
+			if (!reader.hasNext())
+				return ParseResult.success(first);
+
+			StringBuilder builder = new StringBuilder(first);
+			while (reader.hasNext()) {
+				builder.append(' ').append(reader.next());
+			}
+			return ParseResult.success(builder.toString());
+		};
+	}
+
+	/**
+	 * Parses the given range of the given text as a base 10 long without allocating, returning Long.MIN_VALUE if it
+	 * is not a number or does not fit in a long.
+	 */
+	static long parseLong(String text, int start, int end) {
+		boolean negative = (start < end) && (text.charAt(start) == '-');
+		int index = (negative || ((start < end) && (text.charAt(start) == '+'))) ? start + 1 : start;
+		if (index == end)
+			return Long.MIN_VALUE;
+
+		long value = 0;
+		for (; index < end; index++) {
+			int digit = text.charAt(index) - '0';
+			if ((digit < 0) || (digit > 9) || (value > (Long.MAX_VALUE - digit) / 10))
+				return Long.MIN_VALUE;
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parses a duration such as "1h30m", returning null if the given text is not a duration.
+	 */
+	static Duration parseDuration(String text) {
+		Duration duration = Duration.ZERO;
+		int start = 0;
+		for (int index = 0; index < text.length(); index++) {
+			char c = text.charAt(index);
+			if ((c >= '0') && (c <= '9'))
+				continue;
+			if ((index == start) || (c == '-') || (c == '+'))
+				return null;
+
+			long amount = parseLong(text, start, index);
+			if ((amount == Long.MIN_VALUE) || (amount > MAX_DURATION_AMOUNT))
+				return null;
+			switch (Character.toLowerCase(c)) {
+				case 's' -> duration = duration.plusSeconds(amount);
+				case 'm' -> duration = duration.plusMinutes(amount);
+				case 'h' -> duration = duration.plusHours(amount);
+				case 'd' -> duration = duration.plusDays(amount);
+				case 'w' -> duration = duration.plusDays(amount * 7);
+				default -> {
+					return null;
+				}
+			}
+			start = index + 1;
+		}
+		return ((start == text.length()) && (start > 0)) ? duration : null;
+	}
+}
@@ -0,0 +1,62 @@
+package live.chillytheeevee.chillylib.command.argument;
+
+/**
+ * The result of parsing an argument: either the parsed value or a message explaining why the argument is invalid.
+ * Argument types report invalid input through a ParseResult instead of throwing, so parsing never relies on
+ * exceptions for control flow.
+ * @param <T> The type of the parsed value.
+ */
+public final class ParseResult<T> {
+
+	private final T value;
+	private final String error;
+
+	private ParseResult(T value, String error) {
+		this.value = value;
+		this.error = error;
+	}
+
+	/**
+	 * Returns a successful ParseResult holding the given value.
+	 * @param value The parsed value.
+	 * @param <T> The type of the parsed value.
+	 * @return a successful ParseResult holding the given value.
+	 */
+	public static <T> ParseResult<T> success(T value) {
+		return new ParseResult<>(value, null);
+	}
+
+	/**
+	 * Returns a failed ParseResult with the given message.
+	 * @param error The message explaining why the argument is invalid, which may contain color codes.
+	 * @param <T> The type of the value that could not be parsed.
+	 * @return a failed ParseResult with the given message.
+	 */
+	public static <T> ParseResult<T> failure(String error) {
+		return new ParseResult<>(null, error);
+	}
+
+	/**
+	 * Returns whether the argument was parsed successfully.
+	 * @return true if the argument was parsed successfully.
+	 */
+	public boolean isSuccess() {
+		return error == null;
+	}
+
+	/**
+	 * Returns the parsed value.
+	 * @return the parsed value, or null if parsing failed.
+	 */
+	public T getValue() {
+		return value;
+	}
+
+	/**
+	 * Returns the message explaining why the argument is invalid.
+	 * @return the message explaining why the argument is invalid, or null if parsing succeeded.
+	 */
+	public String getError() {
+		return error;
+	}
+}
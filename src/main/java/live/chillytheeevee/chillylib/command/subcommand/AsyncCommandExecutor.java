@@ -0,0 +1,157 @@
+package live.chillytheeevee.chillylib.command.subcommand;
+
+import live.chillytheeevee.chillylib.config.Config;
+import live.chillytheeevee.chillylib.config.ConfigKey;
+import live.chillytheeevee.chillylib.utility.ChatUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Runs the {@link Subcommand}s that declared themselves async through {@link Subcommand#setAsync(boolean)} on a small,
+ * bounded pool of threads, so that commands doing I/O do not freeze the server's tick. Every sender may only have a
+ * limited number of async commands running or queued at once, and the pool only queues a limited number of commands,
+ * beyond which commands are turned down with a message instead of piling up.
+ * <p>
+ * The pool, the per-sender limit and the messages are configured within the {@link Config} of the plugin's base
+ * command. The pool is shut down once the plugin is disabled.
+ */
+public class AsyncCommandExecutor implements Listener {
+
+	private static final String THREADS_KEY = "async_command_threads";
+	private static final String MAX_PER_SENDER_KEY = "max_async_commands_per_sender";
+	private static final String WARNING_COMMAND_RUNNING_KEY = "messages.warning_command_running";
+	private static final String WARNING_BUSY_KEY = "messages.warning_busy";
+	private static final int MAX_QUEUED_COMMANDS = 64;
+
+	private final Plugin plugin;
+	private final ThreadPoolExecutor executor;
+	private final Map<Object, Integer> running = new ConcurrentHashMap<>();
+	private final ConfigKey<Integer> maxPerSender;
+	private final ConfigKey<String> commandRunningMessage;
+	private final ConfigKey<String> busyMessage;
+
+	/**
+	 * Constructs a new AsyncCommandExecutor for the given plugin. The number of threads is read from the given
+	 * {@link Config} once, while the per-sender limit and the messages follow reloads of the Config.
+	 * @param plugin The plugin whose Subcommands are executed.
+	 * @param baseCommandConfig The Config of the plugin's base command, which holds the "async_command_threads" and
+	 *                          "max_async_commands_per_sender" keys.
+	 */
+	public AsyncCommandExecutor(Plugin plugin, Config baseCommandConfig) {
+		this.plugin = plugin;
+		int threads = Math.max(1, baseCommandConfig.key(THREADS_KEY, (section, path) -> section.getInt(path, 2)).get());
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(MAX_QUEUED_COMMANDS), runnable -> {
+			Thread thread = new Thread(runnable, plugin.getName() + "-command-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+
+		this.maxPerSender = baseCommandConfig.key(MAX_PER_SENDER_KEY,
+				(section, path) -> Math.max(1, section.getInt(path, 1)));
+		this.commandRunningMessage = baseCommandConfig.key(WARNING_COMMAND_RUNNING_KEY,
+				(section, path) -> ChatUtils.chat(section.getString(path)));
+		this.busyMessage = baseCommandConfig.key(WARNING_BUSY_KEY,
+				(section, path) -> ChatUtils.chat(section.getString(path)));
+	}
+
+	/**
+	 * Queues the given {@link Subcommand} to be executed off the main thread with the given arguments, unless the
+	 * sender already has as many async commands running as allowed or the queue is full, in which case the sender is
+	 * told so. If the Subcommand returns false, its usage message is sent, and if it throws, the exception is logged.
+	 * @param sender The CommandSender who invoked the Subcommand.
+	 * @param subcommand The Subcommand to execute.
+	 * @param args The arguments the sender invoked the Subcommand with. The first element is its name.
+	 */
+	public void execute(CommandSender sender, Subcommand subcommand, String[] args) {
+		Object key = (sender instanceof Player player) ? player.getUniqueId() : sender.getName();
+		if (running.merge(key, 1, Integer::sum) > maxPerSender.get()) {
+			release(key);
+			sender.sendMessage(commandRunningMessage.get());
+			return;
+		}
+
+		try {
+			executor.execute(() -> {
+				try {
+					if (!subcommand.onCommand(sender, args))
+						sender.sendMessage(ChatUtils.chat("&4" + subcommand.getUsageMessage()));
+				} catch (RuntimeException ex) {
+					plugin.getLogger().log(Level.SEVERE, "Async subcommand " + args[0] + " of " + sender.getName()
+							+ " failed", ex);
+				} finally {
+					release(key);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			release(key);
+			sender.sendMessage(busyMessage.get());
+		}
+	}
+
+	/**
+	 * Runs the given task on the main thread, right away if this is the main thread, and otherwise on the next tick.
+	 * Async Subcommands use this to call Bukkit API that may only be used on the main thread.
+	 * @param task The task to run on the main thread.
+	 * @param <T> The type of the result of the task.
+	 * @return A future completing with the result of the task, or exceptionally if the task threw or could not be
+	 * scheduled because the plugin is being disabled.
+	 */
+	public <T> CompletableFuture<T> callSync(Supplier<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		Runnable run = () -> {
+			try {
+				future.complete(task.get());
+			} catch (RuntimeException ex) {
+				future.completeExceptionally(ex);
+			}
+		};
+
+		if (Bukkit.isPrimaryThread()) {
+			run.run();
+			return future;
+		}
+		try {
+			Bukkit.getScheduler().runTask(plugin, run);
+		} catch (RuntimeException ex) {
+			future.completeExceptionally(ex);
+		}
+		return future;
+	}
+
+	/**
+	 * Stops accepting commands. Commands that are already running or queued still complete.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPluginDisable(PluginDisableEvent event) {
+		if (event.getPlugin() == plugin)
+			shutdown();
+	}
+
+	private void release(Object key) {
+		running.computeIfPresent(key, (ignored, count) -> (count > 1) ? count - 1 : null);
+	}
+}
@@ -0,0 +1,25 @@
+package live.chillytheeevee.chillylib.command.subcommand;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Supplies the tab completions of one argument of a {@link Subcommand} off the main thread, for suggestions that need
+ * to query a database or scan stored data. See {@link Subcommand#setAsyncSuggestions(int, AsyncSuggestionProvider)}.
+ */
+@FunctionalInterface
+public interface AsyncSuggestionProvider {
+
+	/**
+	 * Starts computing the suggestions for the argument the sender is currently typing. This method is called off the
+	 * main thread and must not use any Bukkit API that is not thread-safe. The returned suggestions are filtered by
+	 * what the sender has typed and capped afterwards.
+	 * @param sender The CommandSender that is typing out the Subcommand.
+	 * @param args The arguments the sender has already typed. The first element is always the name of the Subcommand,
+	 *             and the last element is the argument being completed.
+	 * @return A future completing with the suggestions for the argument.
+	 */
+	CompletableFuture<List<String>> suggest(CommandSender sender, String[] args);
+}
@@ -0,0 +1,90 @@
+package live.chillytheeevee.chillylib.command.subcommand;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The tab completions collected for the token a sender is currently typing. Only suggestions starting with the token,
+ * ignoring case, are kept, and collecting stops once the limit is reached, so {@link SuggestionProvider}s never have
+ * to filter by the token or build lists of suggestions that are thrown away.
+ */
+public final class Completions {
+
+	private final String token;
+	private final int limit;
+	private List<String> suggestions = Collections.emptyList();
+
+	/**
+	 * Constructs new, empty Completions for the given token.
+	 * @param token The token the sender is currently typing, which may be empty.
+	 * @param limit The maximum number of suggestions to collect.
+	 */
+	public Completions(String token, int limit) {
+		this.token = token;
+		this.limit = limit;
+	}
+
+	/**
+	 * Returns the token the sender is currently typing.
+	 * @return the token the sender is currently typing.
+	 */
+	public String getToken() {
+		return token;
+	}
+
+	/**
+	 * Returns whether the given suggestion starts with the token the sender is currently typing, ignoring case.
+	 * @param suggestion The suggestion to check.
+	 * @return true if the given suggestion would be kept by {@link Completions#add(String)}.
+	 */
+	public boolean matches(String suggestion) {
+		return suggestion.regionMatches(true, 0, token, 0, token.length());
+	}
+
+	/**
+	 * Adds the given suggestion if it starts with the token the sender is currently typing and the limit has not been
+	 * reached yet.
+	 * @param suggestion The suggestion to add.
+	 * @return false once the limit has been reached, after which adding more suggestions is pointless.
+	 */
+	public boolean add(String suggestion) {
+		if (isFull())
+			return false;
+
+		if (matches(suggestion)) {
+			if (suggestions.isEmpty())
+				suggestions = new ArrayList<>();
+			suggestions.add(suggestion);
+		}
+		return !isFull();
+	}
+
+	/**
+	 * Adds every given suggestion that starts with the token the sender is currently typing, until the limit has been
+	 * reached.
+	 * @param suggestions The suggestions to add.
+	 */
+	public void addAll(Iterable<String> suggestions) {
+		for (String suggestion : suggestions) {
+			if (!add(suggestion))
+				return;
+		}
+	}
+
+	/**
+	 * Returns whether the limit of suggestions has been reached.
+	 * @return true if the limit of suggestions has been reached.
+	 */
+	public boolean isFull() {
+		return suggestions.size() >= limit;
+	}
+
+	/**
+	 * Returns the collected suggestions.
+	 * @return the collected suggestions, in the order they were added.
+	 */
+	public List<String> getSuggestions() {
+		return suggestions;
+	}
+}
@@ -0,0 +1,111 @@
+package live.chillytheeevee.chillylib.command.subcommand;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import live.chillytheeevee.chillylib.config.Config;
+import live.chillytheeevee.chillylib.config.ConfigKey;
+import live.chillytheeevee.chillylib.config.ConfigManager;
+import live.chillytheeevee.chillylib.config.ConfigStats;
+import live.chillytheeevee.chillylib.utility.ChatUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A special {@link Subcommand} that is automatically generated for every plugin running chilly-lib. This command shows
+ * the {@link ConfigStats} of every {@link Config} registered with the plugin's {@link ConfigManager}, or of the Configs
+ * whose name starts with the given argument.
+ */
+public class ConfigsSubcommand extends Subcommand {
+
+	private final ConfigManager configManager;
+	private final JavaPlugin plugin;
+	private final ConfigKey<String> headerMessage;
+	private final ConfigKey<String> entryMessage;
+	private final ConfigKey<String> timingsMessage;
+	private final ConfigKey<String> errorMessage;
+	private final ConfigKey<String> noConfigsMessage;
+
+	public ConfigsSubcommand(Config config, JavaPlugin plugin, ConfigManager configManager) {
+		super(config);
+		this.plugin = plugin;
+		this.configManager = configManager;
+		this.headerMessage = config.stringKey("messages.header");
+		this.entryMessage = config.stringKey("messages.entry");
+		this.timingsMessage = config.stringKey("messages.timings");
+		this.errorMessage = config.stringKey("messages.error");
+		this.noConfigsMessage = config.stringKey("messages.no_configs");
+
+		setSuggestions(1, (sender, args, completions) -> completions.addAll(configManager.getConfigs().keySet()));
+	}
+
+	@Override
+	public boolean onCommand(CommandSender sender, String[] args) {
+		String prefix = (args.length > 1) ? args[1] : "";
+		List<String> lines = new ArrayList<>();
+		for (Map.Entry<String, ConfigStats> entry : configManager.getStats().entrySet()) {
+			if (!entry.getKey().startsWith(prefix))
+				continue;
+
+			ConfigStats stats = entry.getValue();
+			lines.add(entryMessage.get()
+					.replace("%name%", entry.getKey())
+					.replace("%size%", formatSize(stats.getFileSize()))
+					.replace("%keys%", String.valueOf(stats.getKeyCount())));
+			lines.add(timingsMessage.get()
+					.replace("%parse%", formatDuration(stats.getLastParseTime()))
+					.replace("%average_parse%", formatDuration(stats.getAverageParseTime()))
+					.replace("%reloads%", String.valueOf(stats.getReloadCount()))
+					.replace("%saves%", String.valueOf(stats.getSaveCount())));
+
+			Throwable lastError = stats.getLastError();
+			if (lastError != null) {
+				lines.add(errorMessage.get()
+						.replace("%errors%", String.valueOf(stats.getErrorCount()))
+						.replace("%error%", String.valueOf(lastError.getMessage())));
+			}
+		}
+
+		if (lines.isEmpty()) {
+			sender.sendMessage(ChatUtils.chat(noConfigsMessage.get()));
+			return true;
+		}
+
+		sender.sendMessage(ChatUtils.chat(headerMessage.get()));
+		for (String line : lines) {
+			sender.sendMessage(ChatUtils.chat(line));
+		}
+		return true;
+	}
+
+	@Override
+	public String[] getHelpEntry() {
+		YamlConfiguration config = this.config.get();
+		String pluginName = plugin.getName().toLowerCase();
+		return new String[]{
+				ChatUtils.chat("&8&m                                             "),
+				ChatUtils.chat("&d" + Objects.requireNonNull(config.getString(USAGE_KEY))
+						.replace("%s", pluginName)),
+				ChatUtils.chat("&7" + Objects.requireNonNull(config.getString(DESCRIPTION_KEY))
+						.replace("%s", pluginName)),
+				ChatUtils.chat("&7> &d" + getPermissionRequirement().toString()
+						.replace("%s", pluginName)),
+		};
+	}
+
+	private static String formatSize(long bytes) {
+		if (bytes < 1024)
+			return bytes + " B";
+		if (bytes < 1024 * 1024)
+			return String.format("%.1f KB", bytes / 1024.0);
+		return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+	}
+
+	private static String formatDuration(Duration duration) {
+		return String.format("%.2f ms", duration.toNanos() / 1e6);
+	}
+}
@@ -1,21 +1,35 @@
 package live.chillytheeevee.chillylib.command.subcommand;
 
+import live.chillytheeevee.chillylib.command.argument.ArgumentTree;
+import live.chillytheeevee.chillylib.command.argument.ArgumentTypes;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 import live.chillytheeevee.chillylib.config.Config;
+import live.chillytheeevee.chillylib.config.ConfigKey;
 import live.chillytheeevee.chillylib.utility.ChatUtils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A special {@link Subcommand} that is automatically generated for every plugin running chilly-lib. This command prints
  * a messages that shows all registered commands for the plugins along with their usages and descriptions.
+ * <p>
+ * The help pages are rendered once for every combination of Subcommands that senders can see, and are then shared by
+ * every sender who can see exactly the same Subcommands. The rendered pages are discarded whenever a Subcommand is
+ * registered or the Config of a registered Subcommand is reloaded with changes.
  */
 public class HelpSubcommand extends Subcommand {
-	private final String invalid_number;
+	private static final int LINES_PER_PAGE = 12;
+	private static final int MAX_CACHED_VISIBILITIES = 64;
+
+	private final ConfigKey<String> invalidNumberMessage;
 	private final JavaPlugin plugin;
-	private final List<Subcommand> subcommands;
+	private final CopyOnWriteArrayList<Subcommand> subcommands;
+	private final Map<BitSet, List<String[]>> pageCache = new ConcurrentHashMap<>();
+	private final Set<Config> watchedConfigs = Collections.newSetFromMap(new IdentityHashMap<>());
 
 	/**
 	 * Constructs a new HelpSubcommand from the given {@link Config}. This Config must contain the "usage",
@@ -31,89 +45,96 @@ public class HelpSubcommand extends Subcommand {
 
 		this.plugin = plugin;
 
-		invalid_number = config.get().getString("messages.warning_invalid_number");
+		invalidNumberMessage = config.key("messages.warning_invalid_number",
+				(section, path) -> ChatUtils.chat(section.getString(path)));
 
-		this.subcommands = new ArrayList<>();
-		for (String key : subcommands.keySet()) {
-			this.subcommands.add(subcommands.get(key));
+		this.subcommands = new CopyOnWriteArrayList<>();
+		for (Subcommand subcommand : subcommands.values()) {
+			registerSubcommand(subcommand);
 		}
-	}
 
+		setArguments(ArgumentTree.builder()
+				.executes(context -> sendPage(context.getSender(), 1))
+				.then(ArgumentTree.argument("page", ArgumentTypes.integer().withErrorMessage(invalidNumberMessage::get))
+						.suggests(this::suggestPageNumbers)
+						.executes(context -> sendPage(context.getSender(), context.<Integer>get("page"))))
+				.build());
+	}
 
-	@Override
-	public boolean onCommand(CommandSender sender, String[] args) {
-		Map<Integer, ArrayList<String>> helpCommandList;
-		List<String[]> helpEntries = new ArrayList<>();
-		List<String> helpLines = new ArrayList<>();
-		
-		for (Subcommand c : subcommands) {
-			for (String permission : c.getRequiredPermission()) {
-				if (sender.hasPermission(permission)) {
-					helpEntries.add(c.getHelpEntry());
-					break;
-				}
-			}
+	/**
+	 * Suggests the number of every help page the sender can see.
+	 */
+	private void suggestPageNumbers(CommandSender sender, String[] args, Completions completions) {
+		int pages = getPages(sender).size();
+		for (int page = 1; page <= pages; page++) {
+			if (!completions.add(Integer.toString(page)))
+				return;
 		}
-		for (String[] commandHelp : helpEntries) {
-			helpLines.addAll(Arrays.asList(commandHelp));
+	}
+
+	/**
+	 * Sends the given help page to the given sender, or the closest page that exists.
+	 */
+	private boolean sendPage(CommandSender sender, int pageNumber) {
+		List<String[]> pages = getPages(sender);
+		if (!pages.isEmpty())
+			sendPage(sender, pages, Math.max(1, Math.min(pageNumber, pages.size())));
+		return true;
+	}
+
+	private static void sendPage(CommandSender sender, List<String[]> pages, int pageNumber) {
+		for (String line : pages.get(pageNumber - 1)) {
+			sender.sendMessage(line);
 		}
+	}
 
-		helpCommandList = ChatUtils.paginateTextList(12, helpLines);
-		
-		if (helpCommandList.isEmpty()) {
-			return true;
+	/**
+	 * Returns the rendered help pages of every Subcommand the given sender can see, rendering them first if no sender
+	 * who can see the same Subcommands has requested them since they were last discarded.
+	 * @param sender The sender to return the help pages for.
+	 * @return the rendered help pages, each ending with its page number.
+	 */
+	private List<String[]> getPages(CommandSender sender) {
+		List<Subcommand> subcommands = List.copyOf(this.subcommands);
+		BitSet visible = new BitSet(subcommands.size());
+		for (int i = 0; i < subcommands.size(); i++) {
+			if (subcommands.get(i).hasPermission(sender))
+				visible.set(i);
 		}
-		
-		// args[0] is "help" and args.length > 0
-		if (args.length == 1) {
-			for (String line : helpCommandList.get(0)) {
-				sender.sendMessage(ChatUtils.chat(line));
-			}
-			ChatUtils.chat("&8&m                                             ");
-			sender.sendMessage(ChatUtils.chat(String.format("&8[&51&8/&5%s&8]", helpCommandList.size())));
-			return true;
+
+		List<String[]> pages = pageCache.get(visible);
+		if (pages == null) {
+			pages = renderPages(subcommands, visible);
+			// Bounds the cache should senders differ in a lot of permissions
+			if (pageCache.size() >= MAX_CACHED_VISIBILITIES)
+				pageCache.clear();
+			pageCache.put(visible, pages);
 		}
+		return pages;
+	}
 
-		if (args.length == 2) {
-			try {
-				Integer.parseInt(args[1]);
-			} catch (NumberFormatException nfe) {
-				sender.sendMessage(ChatUtils.chat(invalid_number));
-				return true;
-			}
-
-			int pageNumber = Integer.parseInt(args[1]);
-			if (pageNumber < 1) {
-				pageNumber = 1;
-			}
-			if (pageNumber > helpCommandList.size()) {
-				pageNumber = helpCommandList.size();
-			}
-			
-			for (String entry : helpCommandList.get(pageNumber - 1)) {
-				sender.sendMessage(ChatUtils.chat(entry));
-			}
-			ChatUtils.chat("&8&m                                             ");
-			sender.sendMessage(ChatUtils.chat(String.format("&8[&5%s&8/&5%s&8]", pageNumber, helpCommandList.size())));
-			return true;
+	private static List<String[]> renderPages(List<Subcommand> subcommands, BitSet visible) {
+		List<String> helpLines = new ArrayList<>();
+		for (int i = visible.nextSetBit(0); i >= 0; i = visible.nextSetBit(i + 1)) {
+			// Help entries are already colored
+			Collections.addAll(helpLines, subcommands.get(i).getHelpEntry());
 		}
 
-		return false;
+		Map<Integer, ArrayList<String>> helpCommandList = ChatUtils.paginateTextList(LINES_PER_PAGE, helpLines);
+		List<String[]> pages = new ArrayList<>(helpCommandList.size());
+		for (int page = 0; page < helpCommandList.size(); page++) {
+			List<String> lines = new ArrayList<>(helpCommandList.get(page));
+			lines.add(ChatUtils.chat(String.format("&8[&5%s&8/&5%s&8]", page + 1, helpCommandList.size())));
+			pages.add(lines.toArray(new String[0]));
+		}
+		return Collections.unmodifiableList(pages);
 	}
 
-	@Override
-	public List<String> onTabComplete(CommandSender sender, String[] args) {
-		if (args.length == 2) {
-			List<String> subargs = new ArrayList<>();
-			subargs.add("1");
-			subargs.add("2");
-			subargs.add("3");
-			subargs.add("...");
-			return subargs;
-		}
-		List<String> subargs = new ArrayList<>();
-		subargs.add(" ");
-		return subargs;
+	/**
+	 * Discards every rendered help page, so that the pages are rendered again on the next request.
+	 */
+	public void invalidatePages() {
+		pageCache.clear();
 	}
 
 	@Override
@@ -126,17 +147,26 @@ public class HelpSubcommand extends Subcommand {
 						.replace("%s", pluginName)),
 				ChatUtils.chat("&7" + Objects.requireNonNull(config.getString(DESCRIPTION_KEY))
 						.replace("%s", pluginName)),
-				ChatUtils.chat("&7> &d" + Objects.requireNonNull(config.getString(PERMISSION_KEY))
+				ChatUtils.chat("&7> &d" + getPermissionRequirement().toString()
 						.replace("%s", pluginName)),
 		};
 	}
 
 	/**
-	 * Registers the given {@link Subcommand} into this HelpSubcommand.
+	 * Registers the given {@link Subcommand} into this HelpSubcommand. A Subcommand registered again is still listed
+	 * once.
 	 * @param subcommand the Subcommand to register into this HelpSubcommand.
 	 */
 	public void registerSubcommand(Subcommand subcommand) {
-		subcommands.add(subcommand);
+		subcommands.addIfAbsent(subcommand);
+		boolean newConfig;
+		synchronized (watchedConfigs) {
+			newConfig = watchedConfigs.add(subcommand.config);
+		}
+		// One listener per Config, however many of the registered Subcommands share it
+		if (newConfig)
+			subcommand.config.addChangeListener((config, changedPaths) -> invalidatePages());
+		invalidatePages();
 	}
 
 }
@@ -0,0 +1,114 @@
+package live.chillytheeevee.chillylib.command.subcommand;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A short-lived cache of the results of {@link PermissionRequirement} checks per player, so that commands like help,
+ * which check the permissions of every registered {@link Subcommand}, only ask the permission plugin once per
+ * Subcommand within the cache's time to live. Only players are cached, since checking the permissions of the console
+ * is trivial.
+ * <p>
+ * Bukkit has no event for when the permissions of a player are recalculated. The cache of a player is therefore
+ * cleared when the player changes worlds or quits, and should be cleared through
+ * {@link PermissionCache#invalidate(UUID)} or {@link PermissionCache#invalidateAll()} by anything that changes
+ * permissions, such as a hook into the permission plugin. Otherwise, a changed permission takes effect once the cached
+ * result expires. Results are cached by the permissions a requirement names rather than by the requirement itself,
+ * so the requirements compiled again on every reload of their Config share one result per player.
+ */
+public class PermissionCache implements Listener {
+
+	private final long ttlNanos;
+	private final Map<UUID, Map<PermissionRequirement, Result>> results = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs a new PermissionCache that keeps every result for the given time.
+	 * @param ttl How long a result is reused before the permissions of the player are checked again.
+	 */
+	public PermissionCache(Duration ttl) {
+		this.ttlNanos = ttl.toNanos();
+	}
+
+	/**
+	 * Returns whether the given sender meets the given requirement, reusing the result of a previous check if it has
+	 * not expired yet.
+	 * @param sender The sender to check.
+	 * @param requirement The requirement to check.
+	 * @return true if the sender meets the given requirement.
+	 */
+	public boolean test(CommandSender sender, PermissionRequirement requirement) {
+		if (!(sender instanceof Player player))
+			return requirement.test(sender);
+
+		Map<PermissionRequirement, Result> playerResults = results.computeIfAbsent(player.getUniqueId(),
+				ignored -> new ConcurrentHashMap<>());
+		long now = System.nanoTime();
+		Result cached = playerResults.get(requirement);
+		if ((cached != null) && (now - cached.expiresAt() < 0))
+			return cached.result();
+
+		boolean result = requirement.test(player);
+		playerResults.put(requirement, new Result(result, now + ttlNanos));
+		return result;
+	}
+
+	/**
+	 * Returns the cached result of checking the given requirement for the given sender, without checking the
+	 * requirement if there is none. Unlike {@link PermissionCache#test(CommandSender, PermissionRequirement)}, this
+	 * never asks the permission plugin and is therefore safe to call off the main thread.
+	 * @param sender The sender to look up.
+	 * @param requirement The requirement to look up.
+	 * @return The cached result, or null if the sender is not a player or no result is cached or it has expired.
+	 */
+	public Boolean getCached(CommandSender sender, PermissionRequirement requirement) {
+		if (!(sender instanceof Player player))
+			return null;
+
+		Map<PermissionRequirement, Result> playerResults = results.get(player.getUniqueId());
+		Result cached = (playerResults != null) ? playerResults.get(requirement) : null;
+		return ((cached != null) && (System.nanoTime() - cached.expiresAt() < 0)) ? cached.result() : null;
+	}
+
+	/**
+	 * Clears every cached result of the player with the given UUID.
+	 * @param playerId The UUID of the player.
+	 */
+	public void invalidate(UUID playerId) {
+		results.remove(playerId);
+	}
+
+	/**
+	 * Clears every cached result.
+	 */
+	public void invalidateAll() {
+		results.clear();
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+		invalidate(event.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerQuit(PlayerQuitEvent event) {
+		invalidate(event.getPlayer().getUniqueId());
+	}
+
+	/**
+	 * The cached result of a single check.
+	 * @param result Whether the player met the requirement.
+	 * @param expiresAt The {@link System#nanoTime()} at which the result expires.
+	 */
+	private record Result(boolean result, long expiresAt) {
+	}
+}
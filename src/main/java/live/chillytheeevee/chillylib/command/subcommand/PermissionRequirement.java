@@ -0,0 +1,172 @@
+package live.chillytheeevee.chillylib.command.subcommand;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.permissions.Permissible;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The permissions required to use a {@link Subcommand}, compiled once per reload of the Subcommand's
+ * {@link live.chillytheeevee.chillylib.config.Config}. The "permission" key of the Config may either hold a single
+ * permission, a list of permissions of which the sender needs any one, or a section with an "any" list, an "all" list,
+ * or both:
+ * <pre>
+ * permission:
+ *   all:
+ *     - "myplugin.admin"
+ *   any:
+ *     - "myplugin.export"
+ *     - "myplugin.export.*"
+ * </pre>
+ * A required permission is also granted by a wildcard permission above it that has been set on the sender, so
+ * "myplugin.admin.*" and "myplugin.*" both grant "myplugin.admin.export", unless "myplugin.admin.export" itself has
+ * been set to false. A required permission ending in ".*" is itself treated like any other permission.
+ */
+public final class PermissionRequirement {
+
+	private static final String ANY_KEY = "any";
+	private static final String ALL_KEY = "all";
+
+	private final Node[] any;
+	private final Node[] all;
+	private final String[] permissions;
+	private final String description;
+
+	private PermissionRequirement(List<String> any, List<String> all, String description) {
+		this.any = compile(any);
+		this.all = compile(all);
+		List<String> permissions = new ArrayList<>(all);
+		permissions.addAll(any);
+		this.permissions = permissions.toArray(new String[0]);
+		this.description = description;
+	}
+
+	/**
+	 * Compiles the permission requirement at the given path of the given section.
+	 * @param section The section containing the requirement.
+	 * @param path The path of the requirement within the section.
+	 * @return The compiled requirement. A missing or empty requirement cannot be met by anyone.
+	 */
+	public static PermissionRequirement compile(ConfigurationSection section, String path) {
+		ConfigurationSection requirement = section.getConfigurationSection(path);
+		if (requirement != null) {
+			List<String> any = requirement.getStringList(ANY_KEY);
+			List<String> all = requirement.getStringList(ALL_KEY);
+			String description = all.isEmpty() ? any.toString()
+					: (any.isEmpty() ? "all of " + all : "all of " + all + " and any of " + any);
+			return new PermissionRequirement(any, all, description);
+		}
+
+		if (section.isString(path)) {
+			String permission = section.getString(path);
+			return new PermissionRequirement(List.of(permission), List.of(), permission);
+		}
+
+		List<String> any = section.getStringList(path);
+		return new PermissionRequirement(any, List.of(), any.toString());
+	}
+
+	/**
+	 * Returns whether the given {@link Permissible} meets this requirement.
+	 * @param permissible The Permissible to check, usually a CommandSender.
+	 * @return true if the Permissible has every "all" permission and at least one "any" permission.
+	 */
+	public boolean test(Permissible permissible) {
+		if ((any.length == 0) && (all.length == 0))
+			return false;
+
+		for (Node node : all) {
+			if (!node.test(permissible))
+				return false;
+		}
+		if (any.length == 0)
+			return true;
+
+		for (Node node : any) {
+			if (node.test(permissible))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns every permission named by this requirement, the "all" permissions first. The returned array must not be
+	 * modified.
+	 * @return every permission named by this requirement.
+	 */
+	String[] getPermissions() {
+		return permissions;
+	}
+
+	/**
+	 * Returns whether the given object is a requirement naming the same "any" and "all" permissions, in the same order.
+	 * Requirements compiled from the same Config value are equal even though every reload compiles a new one.
+	 * @param other The object to compare to.
+	 * @return true if the given object is an equal requirement.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		return (other instanceof PermissionRequirement requirement) && (any.length == requirement.any.length)
+				&& Arrays.equals(permissions, requirement.permissions);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(permissions) + any.length;
+	}
+
+	/**
+	 * Returns a readable description of this requirement. A list of permissions of which any one is required is
+	 * described the same way YAML lists are printed, such as "[myplugin.help]".
+	 * @return a readable description of this requirement.
+	 */
+	@Override
+	public String toString() {
+		return description;
+	}
+
+	private static Node[] compile(List<String> permissions) {
+		Node[] nodes = new Node[permissions.size()];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new Node(permissions.get(i));
+		}
+		return nodes;
+	}
+
+	/**
+	 * A single required permission together with every wildcard permission that grants it, most specific first.
+	 */
+	private static final class Node {
+
+		private final String permission;
+		private final String[] wildcards;
+
+		private Node(String permission) {
+			this.permission = permission;
+
+			List<String> wildcards = new ArrayList<>();
+			for (int i = permission.lastIndexOf('.'); i > 0; i = permission.lastIndexOf('.', i - 1)) {
+				String wildcard = permission.substring(0, i) + ".*";
+				if (!wildcard.equals(permission))
+					wildcards.add(wildcard);
+			}
+			this.wildcards = wildcards.toArray(new String[0]);
+		}
+
+		private boolean test(Permissible permissible) {
+			if (permissible.isPermissionSet(permission))
+				return permissible.hasPermission(permission);
+
+			for (String wildcard : wildcards) {
+				if (permissible.isPermissionSet(wildcard))
+					return permissible.hasPermission(wildcard);
+			}
+			// Falls back to the default of the permission, such as granting it to operators
+			return permissible.hasPermission(permission);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package live.chillytheeevee.chillylib.command.subcommand;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * A fixed set of suggestions sorted by their case-folded form, so that the suggestions starting with a token are found
+ * with a binary search and then read off in one contiguous run, instead of testing every suggestion. PrefixIndex is
+ * also a {@link SuggestionProvider} that suggests its own entries.
+ */
+public final class PrefixIndex implements SuggestionProvider {
+
+	private final String[] folded;
+	private final String[] values;
+
+	/**
+	 * Constructs a new PrefixIndex of the given suggestions.
+	 * @param suggestions The suggestions to index.
+	 */
+	public PrefixIndex(Collection<String> suggestions) {
+		this.values = suggestions.toArray(new String[0]);
+		Arrays.sort(values, Comparator.comparing(PrefixIndex::fold).thenComparing(Comparator.naturalOrder()));
+		this.folded = new String[values.length];
+		for (int i = 0; i < values.length; i++) {
+			folded[i] = fold(values[i]);
+		}
+	}
+
+	/**
+	 * Adds every indexed suggestion starting with the token of the given {@link Completions}, in case-folded order.
+	 * @param completions The Completions to add suggestions to.
+	 */
+	public void complete(Completions completions) {
+		complete(completions, suggestion -> true);
+	}
+
+	/**
+	 * Adds every indexed suggestion starting with the token of the given {@link Completions} that passes the given
+	 * filter, in case-folded order.
+	 * @param completions The Completions to add suggestions to.
+	 * @param filter The filter every suggestion must pass.
+	 */
+	public void complete(Completions completions, Predicate<String> filter) {
+		String token = fold(completions.getToken());
+		for (int index = lowerBound(token); (index < folded.length) && folded[index].startsWith(token); index++) {
+			if (filter.test(values[index]) && !completions.add(values[index]))
+				return;
+		}
+	}
+
+	@Override
+	public void suggest(CommandSender sender, String[] args, Completions completions) {
+		complete(completions);
+	}
+
+	/**
+	 * Returns the index of the first folded suggestion that is not less than the given token.
+	 */
+	private int lowerBound(String token) {
+		int low = 0;
+		int high = folded.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (folded[middle].compareTo(token) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	private static String fold(String value) {
+		return value.toLowerCase(Locale.ROOT);
+	}
+}
@@ -6,43 +6,57 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import live.chillytheeevee.chillylib.config.Config;
+import live.chillytheeevee.chillylib.config.ConfigKey;
 import live.chillytheeevee.chillylib.config.ConfigManager;
 import live.chillytheeevee.chillylib.utility.ChatUtils;
 
-import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
 
 /**
  * A special {@link Subcommand} that is automatically generated for every plugin running chilly-lib. This command
- * reloads all {@link Config}s for the plugin by calling {@link ConfigManager#reloadConfigs()}.
+ * reloads all {@link Config}s for the plugin by calling {@link ConfigManager#reloadConfigsParallel()}. It runs off the
+ * main thread, so the server keeps ticking while the configs are parsed, and hops back to the main thread to report
+ * whether every config was reloaded successfully.
  */
 public class ReloadSubcommand extends Subcommand {
 
 	private final ConfigManager configManager;
 	private final JavaPlugin plugin;
+	private final ConfigKey<String> reloadSuccessfulMessage;
+	private final ConfigKey<String> reloadFailedMessage;
 
 	private static final String reloadSuccessfulMessageKey = "messages.reload_successful";
+	private static final String reloadFailedMessageKey = "messages.reload_failed";
 
 	public ReloadSubcommand(Config config, JavaPlugin plugin, ConfigManager configManager){
 		super(config);
 		this.plugin = plugin;
 		this.configManager = configManager;
+		this.reloadSuccessfulMessage = config.key(reloadSuccessfulMessageKey,
+				(section, path) -> ChatUtils.chat(section.getString(path)));
+		this.reloadFailedMessage = config.key(reloadFailedMessageKey,
+				(section, path) -> ChatUtils.chat(section.getString(path)));
+		setAsync(true);
 	}
 
 	@Override
 	public boolean onCommand(CommandSender sender, String[] args) {
-		configManager.reloadConfigs();
-
-		if (sender instanceof Player player) {
-			player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1f, 2f);
+		try {
+			configManager.reloadConfigsParallel();
+		} catch (CompletionException ex) {
+			plugin.getLogger().log(Level.SEVERE, "Failed to reload configs", ex.getCause());
+			runSync(() -> sender.sendMessage(reloadFailedMessage.get()));
+			return true;
 		}
-		sender.sendMessage(ChatUtils.chat(config.get().getString(reloadSuccessfulMessageKey)));
-		return true;
-	}
 
-	@Override
-	public List<String> onTabComplete(CommandSender sender, String[] args) {
-		return null;
+		runSync(() -> {
+			if (sender instanceof Player player)
+				player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1f, 2f);
+			sender.sendMessage(reloadSuccessfulMessage.get());
+		});
+		return true;
 	}
 
 	@Override
@@ -55,7 +69,7 @@ public class ReloadSubcommand extends Subcommand {
 						.replace("%s", pluginName)),
 				ChatUtils.chat("&7" + Objects.requireNonNull(config.getString(DESCRIPTION_KEY))
 						.replace("%s", pluginName)),
-				ChatUtils.chat("&7> &d" + Objects.requireNonNull(config.getString(PERMISSION_KEY))
+				ChatUtils.chat("&7> &d" + getPermissionRequirement().toString()
 						.replace("%s", pluginName)),
 		};
 	}
@@ -1,12 +1,19 @@
 package live.chillytheeevee.chillylib.command.subcommand;
 
 import live.chillytheeevee.chillylib.command.BaseCommand;
+import live.chillytheeevee.chillylib.command.argument.ArgumentTree;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.YamlConfiguration;
 import live.chillytheeevee.chillylib.config.Config;
+import live.chillytheeevee.chillylib.config.ConfigKey;
 import live.chillytheeevee.chillylib.utility.ChatUtils;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * An abstract representation of a subcommand used after the {@link BaseCommand} of a plugin. Each
@@ -19,8 +26,18 @@ public abstract class Subcommand {
 	protected static final String USAGE_KEY = "usage";
 	protected static final String DESCRIPTION_KEY = "description";
 	protected static final String PERMISSION_KEY = "permission";
+	protected static final String ALIASES_KEY = "aliases";
 
 	protected Config config;
+	private final ConfigKey<String> usageMessage;
+	private final ConfigKey<List<String>> aliases;
+	private final ConfigKey<PermissionRequirement> permissionRequirement;
+	private volatile PermissionCache permissionCache;
+	private volatile SuggestionProvider[] suggestionProviders = new SuggestionProvider[0];
+	private volatile AsyncSuggestionProvider[] asyncSuggestionProviders = new AsyncSuggestionProvider[0];
+	private volatile ArgumentTree arguments;
+	private volatile boolean async;
+	private volatile AsyncCommandExecutor asyncExecutor;
 
 	/**
 	 * Constructs a new Subcommand from the given {@link Config}. This Config must contain the "usage", "description",
@@ -38,38 +55,276 @@ public abstract class Subcommand {
 			throw new IllegalArgumentException("Config supplied to Subcommand does not have one or more of the required"
 					+ " \"usage\", \"description\", or \"permission\" keys.");
 		}
+
+		this.usageMessage = config.key(USAGE_KEY, (section, path) -> "" + section.get(path));
+		this.aliases = config.key(ALIASES_KEY, (section, path) -> List.copyOf(section.getStringList(path)));
+		this.permissionRequirement = config.key(PERMISSION_KEY, PermissionRequirement::compile);
 	}
 
 	/**
 	 * Called whenever this Subcommand is executed by a {@link CommandSender}. The first argument of this subcommand
-	 * will always be the name of this Subcommand, and thus the minimum size of args is 1.
+	 * will always be the name of this Subcommand, and thus the minimum size of args is 1. By default, the arguments
+	 * are parsed and executed through the {@link ArgumentTree} set with {@link Subcommand#setArguments(ArgumentTree)}.
 	 * @param sender The CommandSender who invoked this subcommand.
 	 * @param args The arguments the sender invoked with this subcommand call. The first element of this array is
 	 *             always the name of this Subcommand.
 	 * @return true if this Subcommand's syntax was used properly.
 	 */
-	public abstract boolean onCommand(CommandSender sender, String[] args);
+	public boolean onCommand(CommandSender sender, String[] args) {
+		ArgumentTree arguments = this.arguments;
+		return (arguments != null) && arguments.execute(sender, args);
+	}
+
+	/**
+	 * Sets the {@link ArgumentTree} that parses and executes the arguments of this Subcommand, unless
+	 * {@link Subcommand#onCommand(CommandSender, String[])} is overridden, and that completes every argument for which
+	 * no {@link SuggestionProvider} has been set.
+	 * @param arguments The ArgumentTree of this Subcommand.
+	 */
+	protected void setArguments(ArgumentTree arguments) {
+		this.arguments = arguments;
+	}
+
+	/**
+	 * Returns the {@link ArgumentTree} of this Subcommand, which can also generate its usage.
+	 * @return the ArgumentTree of this Subcommand, or null if none has been set.
+	 */
+	public ArgumentTree getArguments() {
+		return arguments;
+	}
 
 	/**
 	 * Called whenever a plugin's base command is prompted for a tab completion and this subcommand's name was the first
-	 * argument of the base command. The first entry in args will always be the name of this Subcommand.
+	 * argument of the base command, unless a {@link SuggestionProvider} has been set for the argument being completed
+	 * or this Subcommand has an {@link ArgumentTree}.
+	 * The first entry in args will always be the name of this Subcommand. The returned options are filtered by what
+	 * the user has typed and capped afterwards, so Subcommands should prefer
+	 * {@link Subcommand#setSuggestions(int, SuggestionProvider)}, which avoids building options that are thrown away.
 	 * @param sender The CommandSender that is typing out the Subcommand.
 	 * @param args The arguments the user has already typed. The first element of this array will always be the name of
 	 *             this Subcommand.
 	 * @return A List of Strings that represents the tab complete options of this command given they've already typed
 	 * the given arguments.
 	 */
-	public abstract List<String> onTabComplete(CommandSender sender, String[] args);
+	public List<String> onTabComplete(CommandSender sender, String[] args) {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Declares whether this Subcommand is executed off the main thread, which suits Subcommands doing I/O such as
+	 * exports. Async Subcommands are run by the {@link AsyncCommandExecutor} of the plugin, which limits how many of
+	 * them each sender may run at once. Messages may be sent to the sender from any thread, but any other Bukkit API
+	 * must be called through {@link Subcommand#callSync(Supplier)} or {@link Subcommand#runSync(Runnable)}.
+	 * @param async true to execute this Subcommand off the main thread.
+	 */
+	protected void setAsync(boolean async) {
+		this.async = async;
+	}
+
+	/**
+	 * Returns whether this Subcommand is executed off the main thread.
+	 * @return true if this Subcommand is executed off the main thread.
+	 */
+	public boolean isAsync() {
+		return async;
+	}
+
+	/**
+	 * Runs the given task on the main thread, right away if this is the main thread, and otherwise on the next tick.
+	 * An async Subcommand may wait for the returned future, but a Subcommand running on the main thread must not.
+	 * @param task The task to run on the main thread.
+	 * @param <T> The type of the result of the task.
+	 * @return A future completing with the result of the task, or exceptionally if the task threw.
+	 * @throws IllegalStateException If this Subcommand has not been registered with a {@link SubcommandManager}.
+	 */
+	protected <T> CompletableFuture<T> callSync(Supplier<T> task) {
+		AsyncCommandExecutor asyncExecutor = this.asyncExecutor;
+		if (asyncExecutor == null)
+			throw new IllegalStateException("Subcommand has not been registered with a SubcommandManager");
+		return asyncExecutor.callSync(task);
+	}
+
+	/**
+	 * Runs the given task on the main thread. See {@link Subcommand#callSync(Supplier)}.
+	 * @param task The task to run on the main thread.
+	 * @return A future completing once the task has run, or exceptionally if the task threw.
+	 * @throws IllegalStateException If this Subcommand has not been registered with a {@link SubcommandManager}.
+	 */
+	protected CompletableFuture<Void> runSync(Runnable task) {
+		return callSync(() -> {
+			task.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Sets the {@link AsyncCommandExecutor} used to hop to the main thread.
+	 * @param asyncExecutor The AsyncCommandExecutor of the plugin.
+	 */
+	void setAsyncExecutor(AsyncCommandExecutor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
+	/**
+	 * Returns the tab completions of the argument the given sender is currently typing, which is the last element of
+	 * the given arguments. The completions are produced by the {@link SuggestionProvider} set for that argument, or by
+	 * the {@link ArgumentTree} of this Subcommand or {@link Subcommand#onTabComplete(CommandSender, String[])} if
+	 * there is none, and only those starting with the typed argument are returned.
+	 * @param sender The CommandSender that is typing out the Subcommand.
+	 * @param args The arguments the user has already typed. The first element of this array will always be the name of
+	 *             this Subcommand.
+	 * @param limit The maximum number of completions to return.
+	 * @return the tab completions of the argument the sender is currently typing.
+	 */
+	public List<String> complete(CommandSender sender, String[] args, int limit) {
+		Completions completions = new Completions(args[args.length - 1], limit);
+		SuggestionProvider[] suggestionProviders = this.suggestionProviders;
+		int argument = args.length - 1;
+		ArgumentTree arguments = this.arguments;
+		if ((argument < suggestionProviders.length) && (suggestionProviders[argument] != null)) {
+			suggestionProviders[argument].suggest(sender, args, completions);
+		} else if (arguments != null) {
+			arguments.complete(sender, args, completions);
+		} else {
+			List<String> options = onTabComplete(sender, args);
+			if (options != null)
+				completions.addAll(options);
+		}
+		return completions.getSuggestions();
+	}
+
+	/**
+	 * Sets the {@link SuggestionProvider} that supplies the tab completions of the given argument.
+	 * @param argument The index of the argument within the args passed to this Subcommand, where 1 is the first
+	 *                 argument after the name of this Subcommand.
+	 * @param provider The SuggestionProvider of the argument, or null to complete it through
+	 *                 {@link Subcommand#onTabComplete(CommandSender, String[])}.
+	 */
+	protected synchronized void setSuggestions(int argument, SuggestionProvider provider) {
+		this.suggestionProviders = with(this.suggestionProviders, argument, provider);
+	}
+
+	/**
+	 * Sets the fixed suggestions of the given argument, which are indexed once by a {@link PrefixIndex}.
+	 * @param argument The index of the argument within the args passed to this Subcommand, where 1 is the first
+	 *                 argument after the name of this Subcommand.
+	 * @param suggestions The suggestions of the argument.
+	 */
+	protected void setSuggestions(int argument, Collection<String> suggestions) {
+		setSuggestions(argument, new PrefixIndex(suggestions));
+	}
+
+	/**
+	 * Sets the {@link AsyncSuggestionProvider} that supplies the tab completions of the given argument off the main
+	 * thread. On Paper, tab completions requested by players are then computed while the server keeps ticking. If the
+	 * provider does not complete within the "async_suggestion_timeout" of the plugin's base command, or fails, then the
+	 * argument is completed on the main thread as if no AsyncSuggestionProvider had been set, through the
+	 * {@link SuggestionProvider} of the argument or {@link Subcommand#onTabComplete(CommandSender, String[])}. The
+	 * same happens while the sender's permission to use this Subcommand is not held by the {@link PermissionCache},
+	 * since permissions cannot be checked off the main thread.
+	 * @param argument The index of the argument within the args passed to this Subcommand, where 1 is the first
+	 *                 argument after the name of this Subcommand.
+	 * @param provider The AsyncSuggestionProvider of the argument, or null to always complete it on the main thread.
+	 */
+	protected synchronized void setAsyncSuggestions(int argument, AsyncSuggestionProvider provider) {
+		this.asyncSuggestionProviders = with(this.asyncSuggestionProviders, argument, provider);
+	}
+
+	/**
+	 * Starts computing the tab completions of the argument the given sender is currently typing through the
+	 * {@link AsyncSuggestionProvider} set for that argument. Only completions starting with the typed argument are
+	 * returned.
+	 * @param sender The CommandSender that is typing out the Subcommand.
+	 * @param args The arguments the user has already typed. The first element of this array will always be the name of
+	 *             this Subcommand.
+	 * @param limit The maximum number of completions to return.
+	 * @return A future completing with the tab completions of the argument, or null if no AsyncSuggestionProvider has
+	 * been set for the argument.
+	 */
+	public CompletableFuture<List<String>> completeAsync(CommandSender sender, String[] args, int limit) {
+		AsyncSuggestionProvider[] asyncSuggestionProviders = this.asyncSuggestionProviders;
+		int argument = args.length - 1;
+		if ((argument >= asyncSuggestionProviders.length) || (asyncSuggestionProviders[argument] == null))
+			return null;
+
+		return asyncSuggestionProviders[argument].suggest(sender, args).thenApply(suggestions -> {
+			Completions completions = new Completions(args[argument], limit);
+			completions.addAll(suggestions);
+			return completions.getSuggestions();
+		});
+	}
+
+	/**
+	 * Returns a copy of the given providers with the provider of the given argument replaced.
+	 */
+	private static <T> T[] with(T[] providers, int argument, T provider) {
+		T[] copy = Arrays.copyOf(providers, Math.max(providers.length, argument + 1));
+		copy[argument] = provider;
+		return copy;
+	}
 
 	/**
 	 * Returns a String array of permissions that a CommandSender may have to execute this Subcommand. If a
 	 * CommandSender has any one of these permissions, they have the ability to execute this command. This permissions
-	 * array is defined within this Command's {@link Config} under the "permissions" key.
+	 * array is defined within this Command's {@link Config} under the "permissions" key. Checking whether a
+	 * CommandSender may execute this Subcommand should be done through {@link Subcommand#hasPermission(CommandSender)}
+	 * instead, which also supports required permissions and wildcards.
 	 * @return The permission array of this Command defined within its Config.
 	 */
 	public String[] getRequiredPermission() {
-		List<String> permissions = config.get().getStringList(PERMISSION_KEY);
-		return permissions.toArray(new String[0]);
+		return getPermissionRequirement().getPermissions().clone();
+	}
+
+	/**
+	 * Returns the {@link PermissionRequirement} compiled from this Subcommand's {@link Config}, which is compiled again
+	 * only after the Config was reloaded.
+	 * @return the permissions required to use this Subcommand.
+	 */
+	public PermissionRequirement getPermissionRequirement() {
+		return permissionRequirement.get();
+	}
+
+	/**
+	 * Returns whether the given {@link CommandSender} may use this Subcommand. If a {@link PermissionCache} has been
+	 * enabled through {@link SubcommandManager#enablePermissionCache(java.time.Duration)}, then recent results for the
+	 * same sender are reused.
+	 * @param sender The CommandSender to check.
+	 * @return true if the given CommandSender meets the {@link PermissionRequirement} of this Subcommand.
+	 */
+	public boolean hasPermission(CommandSender sender) {
+		PermissionCache permissionCache = this.permissionCache;
+		PermissionRequirement requirement = getPermissionRequirement();
+		return (permissionCache != null) ? permissionCache.test(sender, requirement) : requirement.test(sender);
+	}
+
+	/**
+	 * Returns whether the given {@link CommandSender} may use this Subcommand according to a result recently checked
+	 * on the main thread and kept by the {@link PermissionCache}. Permissions are never checked by this method, so it
+	 * is safe to call off the main thread.
+	 * @param sender The CommandSender to look up.
+	 * @return The cached result, or null if no PermissionCache has been enabled or it holds no result for the sender.
+	 */
+	public Boolean getCachedPermission(CommandSender sender) {
+		PermissionCache permissionCache = this.permissionCache;
+		return (permissionCache != null) ? permissionCache.getCached(sender, getPermissionRequirement()) : null;
+	}
+
+	/**
+	 * Sets the {@link PermissionCache} used by {@link Subcommand#hasPermission(CommandSender)}, or null to not cache
+	 * permission checks.
+	 * @param permissionCache The PermissionCache to use.
+	 */
+	void setPermissionCache(PermissionCache permissionCache) {
+		this.permissionCache = permissionCache;
+	}
+
+	/**
+	 * Returns the alternative names this Subcommand can be invoked with, which are defined within this Subcommand's
+	 * {@link Config} under the optional "aliases" key. Like the name of a Subcommand, aliases are matched ignoring case.
+	 * @return the aliases of this Subcommand, or an empty List if it has none.
+	 */
+	public List<String> getAliases() {
+		return aliases.get();
 	}
 
 	/**
@@ -77,7 +332,7 @@ public abstract class Subcommand {
 	 * @return the usage message of this Subcommand found within its {@link Config}.
 	 */
 	public String getUsageMessage() {
-		return "" + config.get().get(USAGE_KEY);
+		return usageMessage.get();
 	}
 
 	/**
@@ -90,7 +345,7 @@ public abstract class Subcommand {
 				ChatUtils.chat("&8&m                                             "),
 				ChatUtils.chat("&d" + config.getString(USAGE_KEY)),
 				ChatUtils.chat("&7" + config.getString(DESCRIPTION_KEY)),
-				ChatUtils.chat("&7> &d" + config.getString(PERMISSION_KEY))
+				ChatUtils.chat("&7> &d" + getPermissionRequirement())
 		};
 	}
 }
@@ -0,0 +1,138 @@
+package live.chillytheeevee.chillylib.command.subcommand;
+
+import live.chillytheeevee.chillylib.command.BaseCommand;
+import live.chillytheeevee.chillylib.config.Config;
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The dispatch table of every {@link Subcommand} registered under a plugin's {@link BaseCommand}. Each Subcommand is
+ * indexed under its name and every alias declared within its {@link live.chillytheeevee.chillylib.config.Config},
+ * case-folded once, so that looking up the Subcommand typed by a player is a single hash lookup no matter how many
+ * Subcommands are registered. The index is rebuilt whenever a Subcommand is registered or the aliases of a registered
+ * Subcommand change through a reload.
+ */
+public class SubcommandIndex {
+
+	private final Map<String, Subcommand> subcommands = new LinkedHashMap<>();
+	private final Set<Config> watchedConfigs = Collections.newSetFromMap(new IdentityHashMap<>());
+	private volatile Tables tables = new Tables(Map.of(), Map.of(), new PrefixIndex(Collections.emptyList()));
+	private PermissionCache permissionCache;
+	private AsyncCommandExecutor asyncExecutor;
+
+	/**
+	 * Registers the given {@link Subcommand} under the given name, replacing any Subcommand previously registered under
+	 * that name, and rebuilds the dispatch table.
+	 * @param name The name of the Subcommand.
+	 * @param subcommand The Subcommand to register.
+	 */
+	public void register(String name, Subcommand subcommand) {
+		boolean newConfig;
+		synchronized (this) {
+			subcommands.put(name, subcommand);
+			subcommand.setPermissionCache(permissionCache);
+			subcommand.setAsyncExecutor(asyncExecutor);
+			rebuild();
+			newConfig = watchedConfigs.add(subcommand.config);
+		}
+		// One listener per Config, however often its Subcommands are registered again
+		if (newConfig)
+			subcommand.config.addChangeListener(Subcommand.ALIASES_KEY, (config, changedPaths) -> rebuild());
+	}
+
+	/**
+	 * Sets the {@link PermissionCache} used by every registered {@link Subcommand}, now and in the future, or null to
+	 * not cache permission checks.
+	 * @param permissionCache The PermissionCache to use.
+	 */
+	public synchronized void setPermissionCache(PermissionCache permissionCache) {
+		this.permissionCache = permissionCache;
+		for (Subcommand subcommand : subcommands.values()) {
+			subcommand.setPermissionCache(permissionCache);
+		}
+	}
+
+	/**
+	 * Sets the {@link AsyncCommandExecutor} that runs every registered {@link Subcommand} declared async, now and in
+	 * the future.
+	 * @param asyncExecutor The AsyncCommandExecutor to use.
+	 */
+	public synchronized void setAsyncExecutor(AsyncCommandExecutor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+		for (Subcommand subcommand : subcommands.values()) {
+			subcommand.setAsyncExecutor(asyncExecutor);
+		}
+	}
+
+	/**
+	 * Returns the {@link AsyncCommandExecutor} that runs every registered {@link Subcommand} declared async.
+	 * @return the AsyncCommandExecutor, or null if async Subcommands are run on the main thread.
+	 */
+	public synchronized AsyncCommandExecutor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	/**
+	 * Returns the {@link Subcommand} with the given name or alias, ignoring case.
+	 * @param label The name or alias typed by the sender.
+	 * @return the Subcommand with the given name or alias, or null if there is none.
+	 */
+	public Subcommand get(String label) {
+		return tables.dispatch().get(label.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Adds the names of every registered {@link Subcommand} the given sender may use and that start with the token of
+	 * the given {@link Completions}. Aliases are not suggested.
+	 * @param sender The CommandSender that is typing out the name of a Subcommand.
+	 * @param completions The Completions to add the names to.
+	 */
+	public void complete(CommandSender sender, Completions completions) {
+		Tables tables = this.tables;
+		tables.names().complete(completions, name -> tables.byName().get(name).hasPermission(sender));
+	}
+
+	/**
+	 * Returns an unmodifiable view of every registered {@link Subcommand} by the name it was registered under, in the
+	 * order of registration. Aliases are not included.
+	 * @return every registered Subcommand by its name.
+	 */
+	public synchronized Map<String, Subcommand> getSubcommands() {
+		return Collections.unmodifiableMap(new LinkedHashMap<>(subcommands));
+	}
+
+	/**
+	 * Rebuilds the dispatch table from the names and current aliases of every registered {@link Subcommand}. Names
+	 * always take precedence over aliases, and an alias claimed by several Subcommands belongs to the one registered
+	 * first.
+	 */
+	public synchronized void rebuild() {
+		Map<String, Subcommand> table = new HashMap<>();
+		for (Map.Entry<String, Subcommand> entry : subcommands.entrySet()) {
+			table.put(entry.getKey().toLowerCase(Locale.ROOT), entry.getValue());
+		}
+		for (Subcommand subcommand : subcommands.values()) {
+			for (String alias : subcommand.getAliases()) {
+				table.putIfAbsent(alias.toLowerCase(Locale.ROOT), subcommand);
+			}
+		}
+		tables = new Tables(table, Map.copyOf(subcommands), new PrefixIndex(subcommands.keySet()));
+	}
+
+	/**
+	 * The lookup tables built from the registered {@link Subcommand}s, published together so that readers never see
+	 * tables built from different registrations.
+	 * @param dispatch Every Subcommand by its case-folded name and aliases.
+	 * @param byName Every Subcommand by the name it was registered under.
+	 * @param names The names every Subcommand was registered under.
+	 */
+	private record Tables(Map<String, Subcommand> dispatch, Map<String, Subcommand> byName, PrefixIndex names) {
+	}
+}
@@ -2,13 +2,16 @@ package live.chillytheeevee.chillylib.command.subcommand;
 
 import org.bukkit.Bukkit;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.java.JavaPlugin;
+import live.chillytheeevee.chillylib.command.AsyncTabCompleteListener;
 import live.chillytheeevee.chillylib.command.BaseCommand;
 import live.chillytheeevee.chillylib.config.Config;
 import live.chillytheeevee.chillylib.config.ConfigManager;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The manager of all {@link Subcommand} related tasks. Individual plugins must construct this SubcommandManager and
@@ -22,37 +25,53 @@ public class SubcommandManager {
 			COMMAND_CONFIG_DIRECTORY_PATH + "/" + BASE_COMMAND_NAME + ".yml";
 	private static final String HELP_SUBCOMMAND_NAME = "help";
 	private static final String RELOAD_SUBCOMMAND_NAME = "reload";
+	private static final String CONFIGS_SUBCOMMAND_NAME = "configs";
 
 
 	// Fields
+	private final JavaPlugin plugin;
     private final HelpSubcommand helpSubcommand;
-	private final Map<String, Subcommand> subcommandMap;
+	private final SubcommandIndex subcommandIndex;
+	private PermissionCache permissionCache;
 
 	public SubcommandManager(JavaPlugin plugin, ConfigManager configManager) {
-		this.subcommandMap = new HashMap<>();
+		this.plugin = plugin;
+		this.subcommandIndex = new SubcommandIndex();
 
 		// Register Help and Reload subcommands.
 		String helpSubcommandConfigPath = getSubcommandConfigPath(HELP_SUBCOMMAND_NAME);
 		String reloadSubcommandConfigPath = getSubcommandConfigPath(RELOAD_SUBCOMMAND_NAME);
+		String configsSubcommandConfigPath = getSubcommandConfigPath(CONFIGS_SUBCOMMAND_NAME);
+		configManager.provisionConfigs(List.of(helpSubcommandConfigPath, reloadSubcommandConfigPath,
+				configsSubcommandConfigPath, BASE_COMMAND_CONFIG_PATH));
 		Config helpSubcommandConfig = configManager.getConfig(helpSubcommandConfigPath);
 		Config reloadSubcommandConfig = configManager.getConfig(reloadSubcommandConfigPath);
-		configManager.saveAndUpdateConfig(helpSubcommandConfigPath);
-		configManager.saveAndUpdateConfig(reloadSubcommandConfigPath);
+		Config configsSubcommandConfig = configManager.getConfig(configsSubcommandConfigPath);
 
-		helpSubcommand = new HelpSubcommand(helpSubcommandConfig, plugin, subcommandMap);
+		helpSubcommand = new HelpSubcommand(helpSubcommandConfig, plugin, subcommandIndex.getSubcommands());
 
 		registerSubcommand("help", helpSubcommand);
 		registerSubcommand("reload", new ReloadSubcommand(reloadSubcommandConfig, plugin, configManager));
+		registerSubcommand("configs", new ConfigsSubcommand(configsSubcommandConfig, plugin, configManager));
 
 		// Create and register base plugin command
 		Config baseCommandConfig = configManager.getConfig(BASE_COMMAND_CONFIG_PATH);
-		configManager.saveAndUpdateConfig(BASE_COMMAND_CONFIG_PATH);
 
-        BaseCommand pluginBaseCommand = new BaseCommand(plugin, subcommandMap, baseCommandConfig);
+		AsyncCommandExecutor asyncExecutor = new AsyncCommandExecutor(plugin, baseCommandConfig);
+		plugin.getServer().getPluginManager().registerEvents(asyncExecutor, plugin);
+		subcommandIndex.setAsyncExecutor(asyncExecutor);
+
+        BaseCommand pluginBaseCommand = new BaseCommand(plugin, subcommandIndex, baseCommandConfig);
 
 		PluginCommand command = plugin.getCommand(plugin.getName());
 		if (command != null){
 			command.setExecutor(pluginBaseCommand);
+			if (AsyncTabCompleteListener.isSupported()) {
+				List<String> labels = new ArrayList<>(command.getAliases());
+				labels.add(command.getName());
+				plugin.getServer().getPluginManager().registerEvents(
+						new AsyncTabCompleteListener(plugin, pluginBaseCommand, labels, baseCommandConfig), plugin);
+			}
 		} else {
 			Bukkit.getLogger().severe("Could not create " + plugin.getName() + "'s super command because the"
 			+ " command is not specified in plugin.yml");
@@ -60,15 +79,33 @@ public class SubcommandManager {
 	}
 
 	/**
-	 * Registers the given {@link Subcommand} into this SubcommandManager using the given String subcommandName.
+	 * Registers the given {@link Subcommand} into this SubcommandManager using the given String subcommandName. The
+	 * Subcommand can then be invoked by its name or any of its aliases, ignoring case.
 	 * @param subcommandName The name to assign this subcommand within this SubcommandManager.
 	 * @param subcommand The Subcommand to register.
 	 */
 	public void registerSubcommand(String subcommandName, Subcommand subcommand) {
-		subcommandMap.put(subcommandName, subcommand);
+		subcommandIndex.register(subcommandName, subcommand);
 		helpSubcommand.registerSubcommand(subcommand);
 	}
 
+	/**
+	 * Enables caching the results of permission checks of every registered {@link Subcommand} per player for the given
+	 * time. See {@link PermissionCache}. Calling this method again replaces the previous PermissionCache, whose
+	 * listeners are unregistered and whose results are discarded, so that the new time to live applies right away.
+	 * @param ttl How long the result of a permission check is reused.
+	 * @return The PermissionCache used by every Subcommand, which can be cleared whenever permissions change.
+	 */
+	public synchronized PermissionCache enablePermissionCache(Duration ttl) {
+		if (permissionCache != null)
+			HandlerList.unregisterAll(permissionCache);
+
+		permissionCache = new PermissionCache(ttl);
+		plugin.getServer().getPluginManager().registerEvents(permissionCache, plugin);
+		subcommandIndex.setPermissionCache(permissionCache);
+		return permissionCache;
+	}
+
 	/**
 	 * Returns the String path to a Subcommand's Config file given its Subcommand name.
 	 * @param subcommandName The name of a Subcommand.
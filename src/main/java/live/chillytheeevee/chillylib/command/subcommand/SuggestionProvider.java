@@ -0,0 +1,21 @@
+package live.chillytheeevee.chillylib.command.subcommand;
+
+import org.bukkit.command.CommandSender;
+
+/**
+ * Supplies the tab completions of one argument of a {@link Subcommand}. See
+ * {@link Subcommand#setSuggestions(int, SuggestionProvider)}.
+ */
+@FunctionalInterface
+public interface SuggestionProvider {
+
+	/**
+	 * Adds the suggestions for the argument the sender is currently typing to the given {@link Completions}, which
+	 * already filters them by what the sender has typed and caps their number.
+	 * @param sender The CommandSender that is typing out the Subcommand.
+	 * @param args The arguments the sender has already typed. The first element is always the name of the Subcommand,
+	 *             and the last element is the argument being completed.
+	 * @param completions The Completions to add suggestions to.
+	 */
+	void suggest(CommandSender sender, String[] args, Completions completions);
+}
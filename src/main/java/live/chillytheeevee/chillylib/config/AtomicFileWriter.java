@@ -0,0 +1,130 @@
+package live.chillytheeevee.chillylib.config;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+/**
+ * Writes files in a crash-safe way. The new content is written to a temporary file next to the target, forced to
+ * disk, and then renamed over the target in one atomic step, so the target always holds either its old or its new
+ * content in full.
+ */
+final class AtomicFileWriter {
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Atomically replaces the content of the given file with the given bytes, unless the file already holds exactly
+     * these bytes.
+     * @param target The file to write.
+     * @param content The new content of the file.
+     * @return true if the file was written, or false if it already held the given content.
+     * @throws IOException If the file could not be read or written.
+     */
+    static boolean writeIfChanged(Path target, byte[] content) throws IOException {
+        FileFingerprint onDisk = FileFingerprint.current(target, null);
+        if ((onDisk != null) && onDisk.hasContent(FileFingerprint.hash(content)))
+            return false;
+
+        write(target, content);
+        return true;
+    }
+
+    /**
+     * Atomically replaces the content of the given file with the UTF-8 text streamed by the given ContentWriter,
+     * unless the file already holds exactly that text. The text is streamed straight into a temporary file while its
+     * hash is computed, so the full content never has to be held in memory.
+     * @param target The file to write.
+     * @param content The ContentWriter that streams the new content of the file.
+     * @return true if the file was written, or false if it already held the streamed content.
+     * @throws IOException If the file could not be read or written, or if the ContentWriter failed.
+     */
+    static boolean writeIfChanged(Path target, ContentWriter content) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        Path temp = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        try {
+            MessageDigest digest = FileFingerprint.newDigest();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(
+                        new DigestOutputStream(Channels.newOutputStream(channel), digest), StandardCharsets.UTF_8));
+                content.writeTo(writer);
+                writer.flush();
+                channel.force(true);
+            }
+
+            FileFingerprint onDisk = FileFingerprint.current(target, null);
+            if ((onDisk != null) && onDisk.hasContent(digest.digest()))
+                return false;
+
+            move(temp, target);
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Atomically replaces the content of the given file with the given bytes.
+     * @param target The file to write.
+     * @param content The new content of the file.
+     * @throws IOException If the file could not be written.
+     */
+    static void write(Path target, byte[] content) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        Path temp = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Streams the content of a file into a Writer.
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+
+        /**
+         * Writes the content of a file into the given Writer. The Writer must not be closed.
+         * @param writer The Writer to write the content into.
+         * @throws IOException If the content could not be written.
+         */
+        void writeTo(Writer writer) throws IOException;
+    }
+}
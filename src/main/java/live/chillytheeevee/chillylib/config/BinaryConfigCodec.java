@@ -0,0 +1,250 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the tree of a {@link FileConfiguration} into a compact binary form and decodes it again. Every section,
+ * value, comment, header and footer is preserved, and {@link ConfigurationSerializable} values are stored in their
+ * serialized form, just like YAML stores them. Decoding this binary form does not involve a YAML parser at all, which
+ * makes it a lot faster than loading the equivalent YAML file.
+ */
+final class BinaryConfigCodec {
+
+    private static final byte NULL = 0;
+    private static final byte SECTION = 1;
+    private static final byte STRING = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte BOOLEAN = 7;
+    private static final byte LIST = 8;
+    private static final byte MAP = 9;
+
+    private BinaryConfigCodec() {
+    }
+
+    /**
+     * Writes the given configuration, including its comments, header and footer, to the given output.
+     * @param config The configuration to encode.
+     * @param out The output to write to.
+     * @throws IOException If the configuration could not be written or contains a value that cannot be encoded.
+     */
+    static void encode(FileConfiguration config, DataOutput out) throws IOException {
+        writeStrings(config.options().getHeader(), out);
+        writeStrings(config.options().getFooter(), out);
+        writeSection(config, out);
+    }
+
+    /**
+     * Reads a configuration previously written by {@link BinaryConfigCodec#encode(FileConfiguration, DataOutput)} into
+     * the given, empty configuration. The input is read from memory, so that every length read from it can be checked
+     * against the number of bytes left before anything is allocated for it.
+     * @param bytes The input to read from.
+     * @param config The configuration to read into.
+     * @throws IOException If the input is truncated or malformed.
+     */
+    static void decode(ByteArrayInputStream bytes, FileConfiguration config) throws IOException {
+        DataInputStream in = new DataInputStream(bytes);
+        config.options().setHeader(readStrings(in));
+        config.options().setFooter(readStrings(in));
+        readSection(in, config);
+    }
+
+    private static void writeSection(ConfigurationSection section, DataOutput out) throws IOException {
+        Map<String, Object> values = section.getValues(false);
+        out.writeInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            String key = entry.getKey();
+            writeString(key, out);
+            writeStrings(section.getComments(key), out);
+            writeStrings(section.getInlineComments(key), out);
+            writeValue(entry.getValue(), out);
+        }
+    }
+
+    private static void readSection(DataInputStream in, ConfigurationSection section) throws IOException {
+        int size = readLength(in);
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            List<String> comments = readStrings(in);
+            List<String> inlineComments = readStrings(in);
+
+            byte type = in.readByte();
+            if (type == SECTION) {
+                readSection(in, section.createSection(key));
+            } else {
+                section.set(key, readValue(type, in));
+            }
+
+            if (!comments.isEmpty())
+                section.setComments(key, comments);
+            if (!inlineComments.isEmpty())
+                section.setInlineComments(key, inlineComments);
+        }
+    }
+
+    private static void writeValue(Object value, DataOutput out) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof ConfigurationSection section) {
+            out.writeByte(SECTION);
+            writeSection(section, out);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(string, out);
+        } else if (value instanceof Integer integer) {
+            out.writeByte(INT);
+            out.writeInt(integer);
+        } else if (value instanceof Long longValue) {
+            out.writeByte(LONG);
+            out.writeLong(longValue);
+        } else if (value instanceof Double doubleValue) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(doubleValue);
+        } else if (value instanceof Float floatValue) {
+            out.writeByte(FLOAT);
+            out.writeFloat(floatValue);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(element, out);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            writeMap(map, out);
+        } else if (value instanceof ConfigurationSerializable serializable) {
+            Map<String, Object> serialized = new LinkedHashMap<>();
+            serialized.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY,
+                    ConfigurationSerialization.getAlias(serializable.getClass()));
+            serialized.putAll(serializable.serialize());
+            writeMap(serialized, out);
+        } else {
+            throw new UnsupportedValueException("Cannot encode value of type " + value.getClass().getName());
+        }
+    }
+
+    private static void writeMap(Map<?, ?> map, DataOutput out) throws IOException {
+        out.writeByte(MAP);
+        out.writeInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(entry.getKey(), out);
+            writeValue(entry.getValue(), out);
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        return readValue(in.readByte(), in);
+    }
+
+    private static Object readValue(byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case BOOLEAN:
+                return in.readBoolean();
+            case LIST: {
+                int size = readLength(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = readLength(in);
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(in), readValue(in));
+                }
+                if (map.containsKey(ConfigurationSerialization.SERIALIZED_TYPE_KEY))
+                    return deserialize(map);
+                return map;
+            }
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object deserialize(Map<?, ?> serialized) {
+        return ConfigurationSerialization.deserializeObject((Map<String, ?>) serialized);
+    }
+
+    private static void writeString(String string, DataOutput out) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(List<String> strings, DataOutput out) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            // Blank lines within comments are stored as null
+            writeValue(string, out);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = readLength(in);
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add((String) readValue(in));
+        }
+        return strings;
+    }
+
+    /**
+     * Reads the length of a string or the size of a section or collection. Every byte of a string and every element of
+     * a section or collection takes up at least one byte, so a valid length never exceeds the number of bytes left.
+     */
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if ((length < 0) || (length > in.available()))
+            throw new IOException("Invalid length " + length + " with " + in.available() + " bytes left");
+        return length;
+    }
+
+    /**
+     * Thrown when a configuration holds a value of a type the codec cannot encode, such as a BigInteger or a Date.
+     * Unlike other IOExceptions, encoding the same configuration again is bound to fail the same way.
+     */
+    static final class UnsupportedValueException extends IOException {
+
+        UnsupportedValueException(String message) {
+            super(message);
+        }
+    }
+}
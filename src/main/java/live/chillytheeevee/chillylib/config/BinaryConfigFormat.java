@@ -0,0 +1,60 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * The binary {@link ConfigFormat}, which stores the tree of a configuration through {@link BinaryConfigCodec} behind a
+ * short header identifying the format.
+ */
+final class BinaryConfigFormat implements ConfigFormat {
+
+    private static final int MAGIC = 0x434C4346;
+    private static final int VERSION = 1;
+
+    @Override
+    public void load(byte[] data, YamlConfiguration config) throws IOException, InvalidConfigurationException {
+        if (data.length == 0)
+            return;
+
+        ByteArrayInputStream bytes = new ByteArrayInputStream(data);
+        DataInputStream in = new DataInputStream(bytes);
+        try {
+            if (in.readInt() != MAGIC)
+                throw new InvalidConfigurationException("Not a binary config file");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new InvalidConfigurationException("Unsupported binary config version " + version);
+
+            BinaryConfigCodec.decode(bytes, config);
+        } catch (EOFException ex) {
+            throw new InvalidConfigurationException("Binary config file is truncated", ex);
+        } catch (IOException | RuntimeException ex) {
+            // Reading from memory cannot fail, so every other IOException stems from malformed content
+            throw new InvalidConfigurationException("Binary config file is malformed: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public byte[] save(YamlConfiguration config) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        BinaryConfigCodec.encode(config, out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public String toString() {
+        return "BINARY";
+    }
+}
@@ -1,52 +1,204 @@
 package live.chillytheeevee.chillylib.config;
 
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
 
 /**
  * A representation of a YAML configuration file within a {@link org.bukkit.plugin.Plugin}'s jar file or data directory.
  * Each Config has an internal {@link YamlConfiguration} file and contains methods for saving this Config and reloading
  * the Config into the game. The YamlConfiguration returned by {@link Config#get()} may change after calling the
- * {@link Config#reload()} command.
+ * {@link Config#reload()} command. Although YAML is the default, the file may also be stored in any other
+ * {@link ConfigFormat}, such as JSON or a compact binary format for machine-generated data.
+ * <p>
+ * A reload parses the file into a brand-new YamlConfiguration and only publishes it once it is fully loaded, so
+ * {@link Config#get()} never observes a half-loaded configuration even if {@link Config#reload()} runs on another
+ * thread.
+ * <p>
+ * If write-behind saving has been enabled through {@link ConfigManager#enableWriteBehind(java.time.Duration)}, then
+ * {@link Config#set(String, Object)} and {@link Config#save()} only mark this Config as dirty, and the
+ * {@link ConfigSaveQueue} writes it to disk at most once per flush interval. Values should then be changed through
+ * {@link Config#set(String, Object)} rather than directly on the YamlConfiguration, since the flush happens on a
+ * background thread.
  */
 public class Config {
     private final String name;
-    private File file;
-    private YamlConfiguration config;
+    private volatile File file;
+    private volatile YamlConfiguration config;
     private final JavaPlugin plugin;
+    private final DefaultConfigCache defaultConfigCache;
+    private final AtomicInteger pendingMutations = new AtomicInteger();
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile ConfigSaveQueue saveQueue;
+    private volatile FileFingerprint fingerprint;
+    private volatile boolean snapshotCacheEnabled;
+    // The content last found to hold values a snapshot cannot encode, which is not snapshotted again
+    private volatile FileFingerprint unsnapshottable;
+    private volatile boolean lazyLoadingEnabled;
+    private volatile ConfigFormat format;
+    private final List<ChangeSubscription> changeListeners = new CopyOnWriteArrayList<>();
+    private final Object reloadLock = new Object();
+    private final ConfigStats stats = new ConfigStats();
+    private final List<String> overlays = new CopyOnWriteArrayList<>();
+    private volatile String systemPropertyPrefix;
+    private volatile LayeredConfigTable layeredTable;
+    private volatile Exception loadError;
 
     public Config(JavaPlugin plugin, String name) {
+        this(plugin, name, new DefaultConfigCache(plugin));
+    }
+
+    /**
+     * Constructs a new Config that shares the given cache of parsed jar defaults with other Configs of the same plugin.
+     * @param plugin The plugin this Config belongs to.
+     * @param name The path of this Config relative to the plugin's data folder.
+     * @param defaultConfigCache The cache of default configurations bundled within the plugin's jar file.
+     */
+    Config(JavaPlugin plugin, String name, DefaultConfigCache defaultConfigCache) {
         this.plugin = plugin;
         this.name = name;
+        this.defaultConfigCache = defaultConfigCache;
+        this.format = ConfigFormat.forFileName(name);
     }
 
     /**
-     * Saves this Config to the plugin's data folder. Any values changed by the plugin will be updated.
+     * Saves this Config to the plugin's data folder. Any values changed by the plugin will be updated. If write-behind
+     * saving is enabled, then this Config is only marked as dirty and is written by the next flush of its
+     * {@link ConfigSaveQueue}.
      * @return This instance of Config
      */
     public Config save() {
-        if ((this.config == null) || (this.file == null))
+        ConfigSaveQueue saveQueue = this.saveQueue;
+        if (saveQueue != null) {
+            saveQueue.markDirty(this);
             return this;
+        }
+
+        write();
+        return this;
+    }
+
+    /**
+     * Immediately serializes this Config and writes it to its file within the plugin's data folder. The file is
+     * replaced atomically, and is not written at all if it already holds exactly the serialized content.
+     * @return The number of bytes written to disk.
+     */
+    long write() {
+        YamlConfiguration config = this.config;
+        File file = this.file;
+        if ((config == null) || (file == null))
+            return 0;
+
+        long start = System.nanoTime();
+        byte[] bytes;
         try {
-            if (!config.getConfigurationSection("").getKeys(true).isEmpty())
-                config.save(this.file);
+            synchronized (this) {
+                if (config.getKeys(false).isEmpty())
+                    return 0;
+                bytes = format.save(config);
+            }
+
+            byte[] hash = FileFingerprint.hash(bytes);
+            Path path = file.toPath();
+            FileFingerprint onDisk = FileFingerprint.current(path, fingerprint);
+            if ((onDisk != null) && onDisk.hasContent(hash)) {
+                fingerprint = onDisk;
+                return 0;
+            }
+
+            AtomicFileWriter.write(path, bytes);
+            fingerprint = FileFingerprint.of(path, hash);
         } catch (IOException ex) {
-            ex.printStackTrace();
+            plugin.getLogger().log(Level.SEVERE, "Cannot save " + file, ex);
+            stats.recordError(ex);
+            return 0;
         }
-        return this;
+        stats.recordSave(System.nanoTime() - start, bytes.length);
+        return bytes.length;
+    }
+
+    /**
+     * Sets the {@link ConfigSaveQueue} that saves of this Config are deferred to, or null to save synchronously.
+     * @param saveQueue The ConfigSaveQueue to defer saves to.
+     */
+    void setSaveQueue(ConfigSaveQueue saveQueue) {
+        this.saveQueue = saveQueue;
+        // Changes made while no queue was attached were saved synchronously and must not count as coalesced
+        pendingMutations.set(0);
     }
 
+    /**
+     * Returns the number of times this Config was changed through {@link Config#set(String, Object)} while a
+     * {@link ConfigSaveQueue} was attached since the last call to this method, and resets that number to zero.
+     * @return The number of changes made since the last call to this method.
+     */
+    int takePendingMutations() {
+        return pendingMutations.getAndSet(0);
+    }
+
+    /**
+     * Returns the internal {@link YamlConfiguration} of this Config, loading it from disk first if this Config has not
+     * been loaded yet. Once loaded, this method does not lock and may be called from any thread. If several threads
+     * call it before the first load, then the file is still only loaded once.
+     * @return The internal YamlConfiguration of this Config.
+     */
     public YamlConfiguration get() {
-        if (this.config == null)
-            reload();
+        YamlConfiguration config = this.config;
+        if (config == null) {
+            synchronized (reloadLock) {
+                config = this.config;
+                if (config == null)
+                    config = reload().config;
+            }
+        }
+
+        return config;
+    }
+
+    /**
+     * Returns the load, parse and save statistics of this Config.
+     * @return the statistics of this Config.
+     */
+    public ConfigStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the exception that made the most recent load of this Config fail, such as a file that is not valid YAML.
+     * {@link Config#reload()} logs such failures instead of throwing them, and leaves this Config without the values
+     * of its file until it is loaded successfully again.
+     * @return the exception of the most recent load, or null if it succeeded or this Config has not been loaded yet.
+     */
+    public Exception getLoadError() {
+        return loadError;
+    }
 
-        return this.config;
+    /**
+     * Returns the name of this Config, which is its path relative to the plugin's data folder.
+     * @return the name of this Config.
+     */
+    public String getName() {
+        return name;
     }
 
     /**
@@ -64,30 +216,379 @@ public class Config {
     }
 
     /**
-     * Reloads this Config to reflect any external changes made to it since instantiation. If the YamlConfiguration
-     * stored within the plugin's data directory is missing some keys present within the plugin's jar file, then the
-     * values of those keys will be copied over as the default values of this Config.
+     * Reloads this Config to reflect any external changes made to it since instantiation. The YamlConfiguration of
+     * the same name within the plugin's jar file is attached as the defaults of this Config, so that every key missing
+     * from the file within the plugin's data directory falls back to its value within the jar file. The defaults within
+     * the jar file are parsed only once and then reused by every reload. The reloaded YamlConfiguration is
+     * swapped in atomically once parsing has finished, which makes this method safe to call off the main thread.
+     * Concurrent reloads of the same Config run one after another.
      * @return This Config.
      */
     public Config reload() {
-        if (file == null)
-            this.file = new File(plugin.getDataFolder(), this.name);
+        synchronized (reloadLock) {
+            return load();
+        }
+    }
 
-        this.config = YamlConfiguration.loadConfiguration(file);
+    private Config load() {
+        File file = this.file;
+        if (file == null) {
+            file = new File(plugin.getDataFolder(), this.name);
+            this.file = file;
+        }
 
-        Reader defConfigStream;
+        long start = System.nanoTime();
+        long parseNanos = 0;
+        long fileSize = 0;
+        YamlConfiguration loaded = new YamlConfiguration();
+        FileFingerprint loadedFingerprint = null;
+        Exception error = null;
         try {
-            defConfigStream = new InputStreamReader(plugin.getResource(this.name), StandardCharsets.UTF_8);
+            Path path = file.toPath();
+            byte[] bytes = Files.readAllBytes(path);
+            fileSize = bytes.length;
+            loadedFingerprint = FileFingerprint.of(path, FileFingerprint.hash(bytes));
 
-            if (defConfigStream != null) {
-                YamlConfiguration defConfig = YamlConfiguration.loadConfiguration(defConfigStream);
-                this.config.setDefaults(defConfig);
+            long parseStart = System.nanoTime();
+            ConfigFormat format = this.format;
+            if (format != ConfigFormat.YAML) {
+                // Lazy loading and snapshots only pay off for YAML, which is slow to parse
+                format.load(bytes, loaded);
+            } else {
+                String contents = new String(bytes, StandardCharsets.UTF_8);
+                LazyYamlConfiguration lazy = lazyLoadingEnabled
+                        ? LazyYamlConfiguration.load(contents, plugin.getLogger()) : null;
+                boolean snapshots = snapshotCacheEnabled && canSnapshot(loadedFingerprint);
+                YamlConfiguration snapshot = ((lazy == null) && snapshots) ? readSnapshot(loadedFingerprint) : null;
+                if (lazy != null) {
+                    loaded = lazy;
+                } else if (snapshot != null) {
+                    loaded = snapshot;
+                } else {
+                    loaded.loadFromString(contents);
+                    if (snapshots)
+                        writeSnapshot(loadedFingerprint, loaded);
+                }
             }
-        } catch (NullPointerException ignored) {
+            parseNanos = System.nanoTime() - parseStart;
+        } catch (NoSuchFileException ignored) {
+        } catch (IOException | InvalidConfigurationException ex) {
+            plugin.getLogger().log(Level.SEVERE, "Cannot load " + file, ex);
+            stats.recordError(ex);
+            error = ex;
+        }
+
+        DefaultConfigCache.Defaults defaults = null;
+        try {
+            defaults = defaultConfigCache.get(this.name);
+        } catch (UncheckedIOException ex) {
+            plugin.getLogger().log(Level.SEVERE, "Cannot load the defaults of " + file, ex);
+            stats.recordError(ex);
+            if (error == null)
+                error = ex;
+        }
+        // Attached even if the file holds every key, so that keys removed later on still fall back to their defaults
+        if (defaults != null)
+            loaded.setDefaults(defaults.config());
+
+        LayeredConfigTable previousTable = this.layeredTable;
+        LayeredConfigTable table = isLayered()
+                ? LayeredConfigTable.merge(readLayers(defaults, loaded), loaded.options().pathSeparator(),
+                systemPropertyPrefix, generation.get() + 1)
+                : null;
+
+        YamlConfiguration previous = this.config;
+        this.fingerprint = loadedFingerprint;
+        this.layeredTable = table;
+        this.config = loaded;
+        this.loadError = error;
+        generation.incrementAndGet();
+
+        int keyCount = loaded.getKeys(!(loaded instanceof LazyYamlConfiguration)).size();
+        stats.recordReload(System.nanoTime() - start, parseNanos, fileSize, keyCount);
+
+        if ((previous != null) && !changeListeners.isEmpty()) {
+            char separator = loaded.options().pathSeparator();
+            notifyChangeListeners(((previousTable != null) && (table != null))
+                    ? ConfigDiff.diff(previousTable.getView(), table.getView(), separator)
+                    : ConfigDiff.diff(previous, loaded, separator));
         }
         return this;
     }
 
+    /**
+     * Returns the layers of this Config from the lowest to the highest: the defaults within the plugin's jar file, the
+     * given loaded file and every overlay file that exists.
+     */
+    private List<ConfigurationSection> readLayers(DefaultConfigCache.Defaults defaults, YamlConfiguration loaded) {
+        List<ConfigurationSection> layers = new ArrayList<>(overlays.size() + 2);
+        layers.add((defaults != null) ? defaults.config() : null);
+        layers.add(loaded);
+        for (String overlay : overlays) {
+            File overlayFile = new File(plugin.getDataFolder(), overlay);
+            try {
+                YamlConfiguration layer = new YamlConfiguration();
+                ConfigFormat.forFileName(overlay).load(Files.readAllBytes(overlayFile.toPath()), layer);
+                layers.add(layer);
+            } catch (NoSuchFileException ignored) {
+            } catch (IOException | InvalidConfigurationException ex) {
+                plugin.getLogger().log(Level.SEVERE, "Cannot load overlay " + overlayFile, ex);
+                stats.recordError(ex);
+            }
+        }
+        return layers;
+    }
+
+    /**
+     * Registers a listener that is notified with the paths of every value that changed whenever this Config is
+     * reloaded. The listener is not notified if a reload changed nothing.
+     * @param listener The listener to notify.
+     * @return This Config.
+     */
+    public Config addChangeListener(ConfigChangeListener listener) {
+        changeListeners.add(new ChangeSubscription(null, listener));
+        return this;
+    }
+
+    /**
+     * Registers a listener that is notified whenever a reload of this Config changes the value at the given path or
+     * any value within it. The listener only receives the changed paths at or below the given path, or the given
+     * path's ancestor if that was replaced entirely.
+     * @param path The path to watch for changes.
+     * @param listener The listener to notify.
+     * @return This Config.
+     */
+    public Config addChangeListener(String path, ConfigChangeListener listener) {
+        changeListeners.add(new ChangeSubscription(path, listener));
+        return this;
+    }
+
+    /**
+     * Unregisters every registration of the given listener from this Config.
+     * @param listener The listener to unregister.
+     * @return This Config.
+     */
+    public Config removeChangeListener(ConfigChangeListener listener) {
+        changeListeners.removeIf(subscription -> subscription.listener() == listener);
+        return this;
+    }
+
+    private void notifyChangeListeners(Set<String> changedPaths) {
+        if (changedPaths.isEmpty())
+            return;
+
+        char separator = get().options().pathSeparator();
+        for (ChangeSubscription subscription : changeListeners) {
+            Set<String> paths = subscription.filter(changedPaths, separator);
+            if (paths.isEmpty())
+                continue;
+
+            try {
+                subscription.listener().onConfigChange(this, paths);
+            } catch (RuntimeException ex) {
+                plugin.getLogger().log(Level.SEVERE, "Change listener of " + name + " failed", ex);
+            }
+        }
+    }
+
+    /**
+     * Reloads this Config only if its file has changed since it was last loaded or saved. A file whose modification
+     * time changed but whose content is still the same is not reloaded, so the current YamlConfiguration is kept.
+     * @return true if this Config was reloaded.
+     */
+    public boolean reloadIfChanged() {
+        if (this.config == null) {
+            reload();
+            return true;
+        }
+
+        FileFingerprint known = this.fingerprint;
+        try {
+            FileFingerprint current = FileFingerprint.current(getPath(), known);
+            if (current == known)
+                return false;
+
+            if ((current != null) && (known != null) && current.hasSameContent(known)) {
+                this.fingerprint = current;
+                return false;
+            }
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.WARNING, "Could not check " + name + " for changes", ex);
+            return false;
+        }
+
+        reload();
+        return true;
+    }
+
+    /**
+     * Enables or disables the binary snapshot cache of this Config. While enabled, every reload stores a compact
+     * binary snapshot of the parsed file within the plugin's data folder, and later reloads of an unchanged file load
+     * that snapshot instead of parsing the YAML again. A snapshot is only used while the size, modification time and
+     * content hash of the file still match the ones it was created from.
+     * @param enabled Whether the snapshot cache should be used.
+     * @return This Config.
+     */
+    public Config setSnapshotCacheEnabled(boolean enabled) {
+        this.snapshotCacheEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Sets the {@link ConfigFormat} this Config's file is read from and written to from the next reload on. By default,
+     * the format is chosen by the extension of the file, see {@link ConfigFormat#forFileName(String)}. The snapshot
+     * cache and lazy loading only apply to YAML files.
+     * @param format The format of this Config's file.
+     * @return This Config.
+     */
+    public Config setFormat(ConfigFormat format) {
+        this.format = Objects.requireNonNull(format);
+        return this;
+    }
+
+    /**
+     * Returns the {@link ConfigFormat} this Config's file is read from and written to.
+     * @return the format of this Config's file.
+     */
+    public ConfigFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Enables or disables lazy loading of this Config. While enabled, a reload only indexes where each top-level
+     * section is located within the file, and a section is parsed once it is first accessed through the
+     * YamlConfiguration returned by {@link Config#get()}. Sections that have not been changed are evicted again when
+     * the JVM runs low on memory or {@link Config#evictColdSections()} is called. This is meant for very large files
+     * of which only a few sections are read at a time. Files using anchors and aliases are always loaded completely.
+     * Lazy loading takes precedence over the snapshot cache.
+     * @param enabled Whether top-level sections should be loaded lazily from the next reload on.
+     * @return This Config.
+     */
+    public Config setLazyLoadingEnabled(boolean enabled) {
+        this.lazyLoadingEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Adds a file whose values override the values of this Config's file, such as a file holding the settings of one
+     * environment. Overlays are read from the plugin's data folder and applied in the order they were added, each
+     * overriding the ones added before it. An overlay whose file does not exist is skipped. Overlays are never written
+     * to, and values changed through {@link Config#set(String, Object)} are still saved to this Config's file.
+     * <p>
+     * Adding an overlay or a system property prefix turns this Config into a layered Config from the next reload on.
+     * Every reload then merges the defaults within the plugin's jar file, this Config's file, every overlay and the
+     * system property overrides, in that order, into one flat table of every path. {@link Config#get(String)} and the
+     * {@link ConfigKey}s of this Config read from that table, so a lookup costs a single hash probe no matter how many
+     * layers there are. The YamlConfiguration returned by {@link Config#get()} still only holds this Config's file.
+     * Changing a value through {@link Config#set(String, Object)} makes the next lookup merge every layer again, so
+     * layered Configs suit values that are read far more often than they are changed.
+     * @param name The path of the overlay file relative to the plugin's data folder.
+     * @return This Config.
+     */
+    public Config addOverlay(String name) {
+        overlays.add(name);
+        return this;
+    }
+
+    /**
+     * Sets the prefix of the system properties that override values of this Config, which turns this Config into a
+     * layered Config from the next reload on. See {@link Config#addOverlay(String)}. The path of the overridden value
+     * is the name of the property without the prefix, and the value of the property is parsed like a plain YAML
+     * scalar. For example, with the prefix {@code myplugin.config.}, starting the server with
+     * {@code -Dmyplugin.config.database.port=3307} overrides the value of {@code database.port} with the Integer 3307.
+     * @param prefix The prefix of the system properties that override values, or null to not read system properties.
+     * @return This Config.
+     */
+    public Config setSystemPropertyPrefix(String prefix) {
+        this.systemPropertyPrefix = prefix;
+        return this;
+    }
+
+    private boolean isLayered() {
+        return !overlays.isEmpty() || (systemPropertyPrefix != null);
+    }
+
+    /**
+     * Returns the merged table of every layer of this Config, merging it again first if this Config has been changed
+     * since it was last merged.
+     * @return the merged table of every layer of this Config, or null if this Config was not loaded as a layered
+     * Config.
+     */
+    private LayeredConfigTable getLayeredTable() {
+        get();
+        LayeredConfigTable table = this.layeredTable;
+        if ((table == null) || (table.getGeneration() == generation.get()))
+            return table;
+
+        synchronized (this) {
+            table = this.layeredTable;
+            int generation = this.generation.get();
+            if ((table != null) && (table.getGeneration() != generation)) {
+                table = table.rebuild(generation);
+                this.layeredTable = table;
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Returns the section the {@link ConfigKey}s of this Config resolve their values from, which is the merged view of
+     * every layer for a layered Config and the internal YamlConfiguration otherwise.
+     * @return the section the ConfigKeys of this Config resolve their values from.
+     */
+    ConfigurationSection getResolvedSection() {
+        LayeredConfigTable table = getLayeredTable();
+        return (table != null) ? table.getView() : get();
+    }
+
+    /**
+     * Evicts every lazily loaded section of this Config that has neither been changed nor accessed since the previous
+     * call. Does nothing unless this Config was loaded with lazy loading enabled.
+     * @return The number of sections evicted.
+     */
+    public int evictColdSections() {
+        return (this.config instanceof LazyYamlConfiguration lazy) ? lazy.evictColdSections() : 0;
+    }
+
+    private YamlConfiguration readSnapshot(FileFingerprint source) {
+        try {
+            return ConfigSnapshotCache.read(getSnapshotPath(), source);
+        } catch (IOException | RuntimeException ex) {
+            plugin.getLogger().log(Level.WARNING, "Ignoring unreadable snapshot of " + name, ex);
+            return null;
+        }
+    }
+
+    private boolean canSnapshot(FileFingerprint source) {
+        FileFingerprint unsnapshottable = this.unsnapshottable;
+        return (unsnapshottable == null) || !unsnapshottable.hasSameContent(source);
+    }
+
+    private void writeSnapshot(FileFingerprint source, YamlConfiguration loaded) {
+        try {
+            ConfigSnapshotCache.write(getSnapshotPath(), source, loaded);
+        } catch (BinaryConfigCodec.UnsupportedValueException ex) {
+            // Expected for configs holding types like BigInteger, so this content is simply never snapshotted
+            unsnapshottable = source;
+            plugin.getLogger().log(Level.FINE, "Not snapshotting " + name + ": " + ex.getMessage());
+        } catch (IOException | RuntimeException ex) {
+            plugin.getLogger().log(Level.WARNING, "Could not store a snapshot of " + name, ex);
+        }
+    }
+
+    private Path getSnapshotPath() {
+        return ConfigSnapshotCache.getSnapshotPath(plugin.getDataFolder().toPath(), this.name);
+    }
+
+    /**
+     * Returns the path of this Config's file within the plugin's data folder.
+     * @return the path of this Config's file within the plugin's data folder.
+     */
+    Path getPath() {
+        File file = this.file;
+        return (file != null) ? file.toPath() : new File(plugin.getDataFolder(), this.name).toPath();
+    }
+
     /**
      *
      * @param force
@@ -100,23 +601,157 @@ public class Config {
 
     /**
      * A convenience method for setting a key-value pair inside the internal {@link YamlConfiguration} of this Config.
+     * If write-behind saving is enabled, this Config is also marked as dirty so that the change is written by the next
+     * flush.
+     * <p>
+     * For a layered Config, the next lookup after a change merges every layer again, see
+     * {@link Config#addOverlay(String)}. Changing many values before reading any of them only causes a single merge.
      * @param key The key to set
      * @param value The value to set
      * @return This Config
      */
     public Config set(String key, Object value) {
-        get().set(key, value);
+        synchronized (this) {
+            get().set(key, value);
+        }
+        generation.incrementAndGet();
+
+        ConfigSaveQueue saveQueue = this.saveQueue;
+        if (saveQueue != null) {
+            pendingMutations.incrementAndGet();
+            saveQueue.markDirty(this);
+        }
         return this;
     }
 
     /**
      * A convenience method for getting the value of a key-value pair inside the internal {@link YamlConfiguration} of
-     * this Config.
+     * this Config. For a layered Config, the value is looked up in the merged table of every layer instead. See
+     * {@link Config#addOverlay(String)}.
      * @param key The key to get the value from.
      * @return The Object stored at the given key within this Config's YamlConfiguration, or null if the key does not
      * exist within the YamlConfiguration.
      */
     public Object get(String key) {
-        return get().get(key);
+        LayeredConfigTable table = getLayeredTable();
+        return (table != null) ? table.get(key) : get().get(key);
+    }
+
+    /**
+     * Creates a {@link ConfigKey} for the given path whose value is looked up and converted by the given resolver. The
+     * resolver is called at most once per reload of this Config.
+     * @param path The path of the key within this Config.
+     * @param resolver The function used to look up and convert the value at the given path.
+     * @param <T> The type of the value of the ConfigKey.
+     * @return A ConfigKey for the given path.
+     */
+    public <T> ConfigKey<T> key(String path, BiFunction<ConfigurationSection, String, T> resolver) {
+        return new ConfigKey<>(this, path, resolver);
+    }
+
+    /**
+     * Creates a {@link ConfigKey} for the String value at the given path.
+     * @param path The path of the key within this Config.
+     * @return A ConfigKey for the String value at the given path.
+     */
+    public ConfigKey<String> stringKey(String path) {
+        return key(path, ConfigurationSection::getString);
+    }
+
+    /**
+     * Creates a {@link ConfigKey} for the int value at the given path.
+     * @param path The path of the key within this Config.
+     * @return A ConfigKey for the int value at the given path.
+     */
+    public ConfigKey<Integer> intKey(String path) {
+        return key(path, ConfigurationSection::getInt);
+    }
+
+    /**
+     * Creates a {@link ConfigKey} for the long value at the given path.
+     * @param path The path of the key within this Config.
+     * @return A ConfigKey for the long value at the given path.
+     */
+    public ConfigKey<Long> longKey(String path) {
+        return key(path, ConfigurationSection::getLong);
+    }
+
+    /**
+     * Creates a {@link ConfigKey} for the double value at the given path.
+     * @param path The path of the key within this Config.
+     * @return A ConfigKey for the double value at the given path.
+     */
+    public ConfigKey<Double> doubleKey(String path) {
+        return key(path, ConfigurationSection::getDouble);
+    }
+
+    /**
+     * Creates a {@link ConfigKey} for the boolean value at the given path.
+     * @param path The path of the key within this Config.
+     * @return A ConfigKey for the boolean value at the given path.
+     */
+    public ConfigKey<Boolean> booleanKey(String path) {
+        return key(path, ConfigurationSection::getBoolean);
+    }
+
+    /**
+     * Creates a {@link ConfigKey} for the String list at the given path. The returned list must not be modified.
+     * @param path The path of the key within this Config.
+     * @return A ConfigKey for the String list at the given path.
+     */
+    public ConfigKey<List<String>> stringListKey(String path) {
+        return key(path, (section, key) -> List.copyOf(section.getStringList(key)));
+    }
+
+    /**
+     * A listener registered with this Config, along with the path it watches.
+     * @param path The watched path, or null to watch the entire Config.
+     * @param listener The registered listener.
+     */
+    private record ChangeSubscription(String path, ConfigChangeListener listener) {
+
+        /**
+         * Returns the given changed paths that are relevant to this subscription.
+         */
+        Set<String> filter(Set<String> changedPaths, char separator) {
+            if (path == null)
+                return changedPaths;
+
+            Set<String> relevant = new LinkedHashSet<>();
+            for (String changed : changedPaths) {
+                boolean within = changed.equals(path) || changed.startsWith(path + separator);
+                if (within || path.startsWith(changed + separator))
+                    relevant.add(changed);
+            }
+            return Collections.unmodifiableSet(relevant);
+        }
+    }
+
+    /**
+     * Creates a {@link ConfigKey} whose value is the section at the given path bound onto the given record or class
+     * through {@link ConfigBinder}. The section is bound again only after this Config was reloaded or changed, so hot
+     * code can keep reading the final fields of the bound object.
+     * @param path The path of the section within this Config, or an empty String to bind the entire Config.
+     * @param type The record or class to bind the section onto.
+     * @param <T> The type to bind the section onto.
+     * @return A ConfigKey for the bound section. Its {@link ConfigKey#get()} method throws a
+     * {@link ConfigBindingException} naming the key path of every value that could not be bound.
+     */
+    public <T> ConfigKey<T> bind(String path, Class<T> type) {
+        return key(path, (section, key) -> {
+            ConfigurationSection bound = key.isEmpty() ? section : section.getConfigurationSection(key);
+            if (bound == null)
+                throw new ConfigBindingException(Map.of(key, "missing section"));
+            return ConfigBinder.bind(bound, type);
+        });
+    }
+
+    /**
+     * Returns a number that changes every time this Config is reloaded or changed through
+     * {@link Config#set(String, Object)}.
+     * @return the current generation of this Config.
+     */
+    int getGeneration() {
+        return generation.get();
     }
 }
\ No newline at end of file
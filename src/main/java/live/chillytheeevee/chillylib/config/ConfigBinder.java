@@ -0,0 +1,404 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Binds a {@link ConfigurationSection} onto a record or plain Java object in a single pass. The reflective metadata of
+ * every bound type, i.e. its constructor, its components or fields and a converter for each of their generic types, is
+ * computed once per type and then reused, so binding costs about as much as reading every value by hand.
+ * <p>
+ * Records are constructed through their canonical constructor. Other classes need a no-argument constructor, after
+ * which every non-static, non-transient field is set. Each component or field is bound to the key named after it in
+ * snake_case, unless it is annotated with {@link ConfigPath}. Supported types are primitives and their wrappers,
+ * Strings, enums, nested records and objects, as well as Lists, Sets and String-keyed Maps of these. Collections are
+ * bound as unmodifiable copies. A missing value is bound as null, or as an empty collection, and is only an error for
+ * primitives.
+ * <p>
+ * Bound objects are usually obtained through {@link Config#bind(String, Class)}, which only binds them again once the
+ * Config was reloaded.
+ */
+public final class ConfigBinder {
+
+    private static final ClassValue<TypeBinding> BINDINGS = new ClassValue<>() {
+        @Override
+        protected TypeBinding computeValue(Class<?> type) {
+            return new TypeBinding(type);
+        }
+    };
+
+    private ConfigBinder() {
+    }
+
+    /**
+     * Binds the given section onto a new instance of the given type.
+     * @param section The section to bind.
+     * @param type The record or class to bind the section onto.
+     * @param <T> The type to bind the section onto.
+     * @return A new instance of the given type holding the values of the given section.
+     * @throws ConfigBindingException If any value of the section could not be bound. The exception lists the key path
+     * of every such value.
+     * @throws IllegalArgumentException If the given type, or a type used within it, cannot be bound at all.
+     */
+    public static <T> T bind(ConfigurationSection section, Class<T> type) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        String path = section.getCurrentPath();
+        T bound = type.cast(BINDINGS.get(type).bind(section, (path == null) ? "" : path, errors));
+        if (!errors.isEmpty())
+            throw new ConfigBindingException(errors);
+        return bound;
+    }
+
+    private static String child(String path, String key) {
+        return path.isEmpty() ? key : path + '.' + key;
+    }
+
+    private static String toSnakeCase(String name) {
+        StringBuilder key = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0)
+                    key.append('_');
+                key.append(Character.toLowerCase(c));
+            } else {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Converts a raw config value into the value of a component or field, adding an error for the given path if it
+     * cannot.
+     */
+    @FunctionalInterface
+    private interface Converter {
+        Object convert(Object raw, String path, Map<String, String> errors);
+    }
+
+    /**
+     * The cached metadata of a bound type.
+     */
+    private static final class TypeBinding {
+        private final Constructor<?> constructor;
+        private final List<Property> properties = new ArrayList<>();
+        private final boolean record;
+
+        private TypeBinding(Class<?> type) {
+            this.record = type.isRecord();
+            try {
+                if (record) {
+                    RecordComponent[] components = type.getRecordComponents();
+                    Class<?>[] parameterTypes = new Class<?>[components.length];
+                    for (int i = 0; i < components.length; i++) {
+                        RecordComponent component = components[i];
+                        parameterTypes[i] = component.getType();
+                        String key = keyOf(component.getName(), component.getAnnotation(ConfigPath.class));
+                        properties.add(new Property(key, component.getType(),
+                                converterFor(component.getGenericType()), null));
+                    }
+                    this.constructor = type.getDeclaredConstructor(parameterTypes);
+                } else {
+                    this.constructor = type.getDeclaredConstructor();
+                    for (Class<?> c = type; (c != null) && (c != Object.class); c = c.getSuperclass()) {
+                        for (Field field : c.getDeclaredFields()) {
+                            int modifiers = field.getModifiers();
+                            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic())
+                                continue;
+
+                            field.setAccessible(true);
+                            String key = keyOf(field.getName(), field.getAnnotation(ConfigPath.class));
+                            properties.add(new Property(key, field.getType(), converterFor(field.getGenericType()),
+                                    field));
+                        }
+                    }
+                }
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException | RuntimeException ex) {
+                throw new IllegalArgumentException("Cannot bind configs to " + type.getName(), ex);
+            }
+        }
+
+        private Object bind(ConfigurationSection section, String path, Map<String, String> errors) {
+            Object[] values = new Object[properties.size()];
+            for (int i = 0; i < values.length; i++) {
+                Property property = properties.get(i);
+                String propertyPath = child(path, property.key());
+                Object raw = section.get(property.key());
+                if (raw == null) {
+                    if (property.type().isPrimitive())
+                        errors.put(propertyPath, "missing value");
+                    values[i] = emptyValue(property.type());
+                    continue;
+                }
+
+                Object value = property.converter().convert(raw, propertyPath, errors);
+                values[i] = (value == null) ? emptyValue(property.type()) : value;
+            }
+
+            try {
+                if (record)
+                    return constructor.newInstance(values);
+
+                Object instance = constructor.newInstance();
+                for (int i = 0; i < values.length; i++) {
+                    properties.get(i).field().set(instance, values[i]);
+                }
+                return instance;
+            } catch (InvocationTargetException ex) {
+                // Validation performed by the constructor itself
+                errors.put(path.isEmpty() ? "<root>" : path, String.valueOf(ex.getCause().getMessage()));
+                return null;
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException("Cannot construct " + constructor.getDeclaringClass().getName(), ex);
+            }
+        }
+
+        private static String keyOf(String name, ConfigPath annotation) {
+            return (annotation != null) ? annotation.value() : toSnakeCase(name);
+        }
+
+        private static Object emptyValue(Class<?> type) {
+            if (type == List.class)
+                return List.of();
+            if (type == Set.class)
+                return Set.of();
+            if (type == Map.class)
+                return Map.of();
+            if (!type.isPrimitive())
+                return null;
+            if (type == boolean.class)
+                return false;
+            if (type == char.class)
+                return '\0';
+            if (type == long.class)
+                return 0L;
+            if (type == float.class)
+                return 0F;
+            if (type == double.class)
+                return 0D;
+            if (type == short.class)
+                return (short) 0;
+            if (type == byte.class)
+                return (byte) 0;
+            return 0;
+        }
+    }
+
+    /**
+     * A component or field of a bound type.
+     */
+    private record Property(String key, Class<?> type, Converter converter, Field field) {
+    }
+
+    /**
+     * Compiles the converter for values of the given generic type.
+     */
+    private static Converter converterFor(Type type) {
+        if (type instanceof ParameterizedType parameterized) {
+            Type raw = parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if ((raw == List.class) || (raw == Set.class))
+                return collectionConverter(converterFor(arguments[0]), raw == Set.class);
+            if ((raw == Map.class) && (arguments[0] == String.class))
+                return mapConverter(converterFor(arguments[1]));
+        } else if (type instanceof Class<?> c) {
+            Converter converter = simpleConverter(c);
+            if (converter != null)
+                return converter;
+            if (c.isRecord() || (!c.isInterface() && !c.isArray() && !Modifier.isAbstract(c.getModifiers())
+                    && !c.getName().startsWith("java."))) {
+                return sectionConverter(c);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported type " + type.getTypeName());
+    }
+
+    private static Converter simpleConverter(Class<?> type) {
+        if (type == Object.class)
+            return (raw, path, errors) -> raw;
+        if (type == String.class) {
+            return (raw, path, errors) -> {
+                if ((raw instanceof String) || (raw instanceof Number) || (raw instanceof Boolean))
+                    return String.valueOf(raw);
+                return error(errors, path, "expected text but found " + describe(raw));
+            };
+        }
+        if ((type == boolean.class) || (type == Boolean.class)) {
+            return (raw, path, errors) -> {
+                if (raw instanceof Boolean)
+                    return raw;
+                if ("true".equalsIgnoreCase(String.valueOf(raw)) || "false".equalsIgnoreCase(String.valueOf(raw)))
+                    return Boolean.parseBoolean(String.valueOf(raw));
+                return error(errors, path, "expected true or false but found " + describe(raw));
+            };
+        }
+        if ((type == int.class) || (type == Integer.class))
+            return wholeNumberConverter(Integer.MIN_VALUE, Integer.MAX_VALUE, Long::intValue);
+        if ((type == long.class) || (type == Long.class))
+            return wholeNumberConverter(Long.MIN_VALUE, Long.MAX_VALUE, value -> value);
+        if ((type == double.class) || (type == Double.class))
+            return numberConverter("a number", Number::doubleValue, Double::valueOf);
+        if ((type == float.class) || (type == Float.class))
+            return numberConverter("a number", Number::floatValue, Float::valueOf);
+        if ((type == short.class) || (type == Short.class))
+            return wholeNumberConverter(Short.MIN_VALUE, Short.MAX_VALUE, Long::shortValue);
+        if ((type == byte.class) || (type == Byte.class))
+            return wholeNumberConverter(Byte.MIN_VALUE, Byte.MAX_VALUE, Long::byteValue);
+        if ((type == char.class) || (type == Character.class)) {
+            return (raw, path, errors) -> (String.valueOf(raw).length() == 1)
+                    ? String.valueOf(raw).charAt(0)
+                    : error(errors, path, "expected a single character but found " + describe(raw));
+        }
+        if (type.isEnum())
+            return enumConverter(type);
+        return null;
+    }
+
+    private static Converter numberConverter(String expected, Function<Number, Object> fromNumber,
+                                             Function<String, Object> fromString) {
+        return (raw, path, errors) -> {
+            if (raw instanceof Number number)
+                return fromNumber.apply(number);
+            try {
+                return fromString.apply(String.valueOf(raw).trim());
+            } catch (NumberFormatException ex) {
+                return error(errors, path, "expected " + expected + " but found " + describe(raw));
+            }
+        };
+    }
+
+    /**
+     * Returns a converter of whole numbers within the given bounds. Fractional and out of range values are reported as
+     * errors instead of being truncated or wrapped around.
+     */
+    private static Converter wholeNumberConverter(long min, long max, Function<Long, Object> narrow) {
+        return (raw, path, errors) -> {
+            Long value = toWholeNumber(raw);
+            if (value == null)
+                return error(errors, path, "expected a whole number but found " + describe(raw));
+            if ((value < min) || (value > max))
+                return error(errors, path, "expected a whole number from " + min + " to " + max + " but found "
+                        + describe(raw));
+            return narrow.apply(value);
+        };
+    }
+
+    /**
+     * Returns the given value as a long, or null if it is not a whole number or does not fit in a long.
+     */
+    private static Long toWholeNumber(Object raw) {
+        if ((raw instanceof Integer) || (raw instanceof Long) || (raw instanceof Short) || (raw instanceof Byte))
+            return ((Number) raw).longValue();
+        if (raw instanceof BigInteger big)
+            return (big.bitLength() < Long.SIZE) ? big.longValue() : null;
+        if (raw instanceof Number number) {
+            double value = number.doubleValue();
+            // 2^63 is the first double that no longer fits in a long
+            boolean whole = (value == Math.rint(value)) && (value >= -0x1p63) && (value < 0x1p63);
+            return whole ? (Long) (long) value : null;
+        }
+        try {
+            return Long.parseLong(String.valueOf(raw).trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Converter enumConverter(Class<?> type) {
+        Map<String, Object> constants = new LinkedHashMap<>();
+        for (Object constant : type.getEnumConstants()) {
+            constants.put(((Enum) constant).name().toUpperCase(Locale.ROOT), constant);
+        }
+        return (raw, path, errors) -> {
+            Object constant = constants.get(String.valueOf(raw).trim().toUpperCase(Locale.ROOT).replace('-', '_')
+                    .replace(' ', '_'));
+            return (constant != null) ? constant
+                    : error(errors, path, "expected one of " + constants.keySet() + " but found " + describe(raw));
+        };
+    }
+
+    private static Converter collectionConverter(Converter elementConverter, boolean set) {
+        return (raw, path, errors) -> {
+            if (!(raw instanceof List<?> list))
+                return error(errors, path, "expected a list but found " + describe(raw));
+
+            List<Object> elements = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                Object element = list.get(i);
+                String elementPath = path + '[' + i + ']';
+                elements.add((element == null) ? null : elementConverter.convert(element, elementPath, errors));
+            }
+            return set ? Collections.unmodifiableSet(new LinkedHashSet<>(elements))
+                    : Collections.unmodifiableList(elements);
+        };
+    }
+
+    private static Converter mapConverter(Converter valueConverter) {
+        return (raw, path, errors) -> {
+            ConfigurationSection section = asSection(raw);
+            if (section == null)
+                return error(errors, path, "expected a section but found " + describe(raw));
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String key : section.getKeys(false)) {
+                Object value = section.get(key);
+                values.put(key, (value == null) ? null : valueConverter.convert(value, child(path, key), errors));
+            }
+            return Collections.unmodifiableMap(values);
+        };
+    }
+
+    private static Converter sectionConverter(Class<?> type) {
+        return (raw, path, errors) -> {
+            ConfigurationSection section = asSection(raw);
+            if (section == null)
+                return error(errors, path, "expected a section but found " + describe(raw));
+            return BINDINGS.get(type).bind(section, path, errors);
+        };
+    }
+
+    /**
+     * Returns the given value as a section, which includes maps found within lists.
+     */
+    private static ConfigurationSection asSection(Object raw) {
+        if (raw instanceof ConfigurationSection section)
+            return section;
+        if (raw instanceof Map<?, ?> map)
+            return new MemoryConfiguration().createSection("map", map);
+        return null;
+    }
+
+    private static Object error(Map<String, String> errors, String path, String message) {
+        errors.put(path, message);
+        return null;
+    }
+
+    private static String describe(Object raw) {
+        if (raw instanceof ConfigurationSection)
+            return "a section";
+        if (raw instanceof List)
+            return "a list";
+        return "'" + raw + "'";
+    }
+}
@@ -0,0 +1,39 @@
+package live.chillytheeevee.chillylib.config;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Thrown by {@link ConfigBinder} if values of a config could not be bound to the requested type. Every value that
+ * failed to bind is reported along with its full key path.
+ */
+public class ConfigBindingException extends RuntimeException {
+
+    private final Map<String, String> errors;
+
+    /**
+     * Constructs a new ConfigBindingException.
+     * @param errors The error message of every value that failed to bind, by full key path. Must not be modified
+     * afterwards.
+     */
+    ConfigBindingException(Map<String, String> errors) {
+        super(format(errors));
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * Returns the error message of every value that failed to bind, by full key path and in binding order.
+     * @return the error message of every value that failed to bind, by full key path.
+     */
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    private static String format(Map<String, String> errors) {
+        StringBuilder message = new StringBuilder("Could not bind ").append(errors.size()).append(" value(s):");
+        for (Map.Entry<String, String> error : errors.entrySet()) {
+            message.append("\n  ").append(error.getKey()).append(": ").append(error.getValue());
+        }
+        return message.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package live.chillytheeevee.chillylib.config;
+
+import java.util.Set;
+
+/**
+ * A listener that is notified about the keys that changed when a {@link Config} is reloaded, so that anything derived
+ * from a Config only needs to be rebuilt for the parts that actually changed.
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+
+    /**
+     * Called after the given {@link Config} was reloaded and at least one of the watched keys changed. This method is
+     * called on the thread that reloaded the Config, which is not necessarily the main thread.
+     * @param config The Config that was reloaded.
+     * @param changedPaths The full paths of every value that was added, removed or changed, in file order. A path is
+     * either a single value or an empty section, never a section that merely contains changed values.
+     */
+    void onConfigChange(Config config, Set<String> changedPaths);
+}
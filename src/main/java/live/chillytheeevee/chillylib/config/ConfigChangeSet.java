@@ -0,0 +1,71 @@
+package live.chillytheeevee.chillylib.config;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The changes {@link ConfigUpdater} makes, or would make, when updating a config file from its template inside the
+ * plugin jar. A config file is only rewritten if its ConfigChangeSet is not empty.
+ */
+public final class ConfigChangeSet {
+
+    /**
+     * A ConfigChangeSet without any changes.
+     */
+    public static final ConfigChangeSet EMPTY = new ConfigChangeSet(Set.of(), Set.of(), Set.of());
+
+    private final Set<String> addedKeys;
+    private final Set<String> removedKeys;
+    private final Set<String> changedComments;
+
+    /**
+     * Constructs a new ConfigChangeSet. The given sets must not be modified afterwards.
+     * @param addedKeys The keys added to the config file.
+     * @param removedKeys The keys removed from the config file.
+     * @param changedComments The keys whose comments changed.
+     */
+    ConfigChangeSet(Set<String> addedKeys, Set<String> removedKeys, Set<String> changedComments) {
+        this.addedKeys = Collections.unmodifiableSet(addedKeys);
+        this.removedKeys = Collections.unmodifiableSet(removedKeys);
+        this.changedComments = Collections.unmodifiableSet(changedComments);
+    }
+
+    /**
+     * Returns the keys of the template that are missing from the config file and are added to it, in template order.
+     * @return the keys that are added to the config file.
+     */
+    public Set<String> getAddedKeys() {
+        return addedKeys;
+    }
+
+    /**
+     * Returns the keys of the config file that no longer exist within the template and are removed from it, in file
+     * order.
+     * @return the keys that are removed from the config file.
+     */
+    public Set<String> getRemovedKeys() {
+        return removedKeys;
+    }
+
+    /**
+     * Returns the keys whose comments within the template differ from their comments within the config file. An empty
+     * key stands for the comments at the very end of the file.
+     * @return the keys whose comments are changed.
+     */
+    public Set<String> getChangedComments() {
+        return changedComments;
+    }
+
+    /**
+     * Returns whether this ConfigChangeSet contains no changes, in which case the config file is left untouched.
+     * @return true if this ConfigChangeSet contains no changes.
+     */
+    public boolean isEmpty() {
+        return addedKeys.isEmpty() && removedKeys.isEmpty() && changedComments.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "added " + addedKeys + ", removed " + removedKeys + ", changed comments " + changedComments;
+    }
+}
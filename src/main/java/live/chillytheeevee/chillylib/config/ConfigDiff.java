@@ -0,0 +1,82 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Computes which values differ between two versions of a configuration.
+ */
+final class ConfigDiff {
+
+    private ConfigDiff() {
+    }
+
+    /**
+     * Returns the full paths of every value that differs between the given configurations. Values are compared as
+     * stored within the configurations, ignoring their defaults. Top-level sections of lazily loaded configurations
+     * whose text is unchanged are skipped without being loaded.
+     * @param before The previous version of the configuration.
+     * @param after The current version of the configuration.
+     * @param separator The path separator of the configurations.
+     * @return The full paths of every added, removed or changed value or empty section, in the order of the current
+     * configuration followed by the removed paths.
+     */
+    static Set<String> diff(ConfigurationSection before, ConfigurationSection after, char separator) {
+        Set<String> changed = new LinkedHashSet<>();
+        diff(before, after, "", separator, changed);
+        return Collections.unmodifiableSet(changed);
+    }
+
+    private static void diff(ConfigurationSection before, ConfigurationSection after, String prefix, char separator,
+                             Set<String> changed) {
+        Set<String> keys = new LinkedHashSet<>(after.getKeys(false));
+        keys.addAll(before.getKeys(false));
+        for (String key : keys) {
+            if (prefix.isEmpty() && isUnchangedText(before, after, key))
+                continue;
+
+            String path = prefix + key;
+            Object previous = before.get(key, null);
+            Object current = after.get(key, null);
+            if ((previous instanceof ConfigurationSection previousSection)
+                    && (current instanceof ConfigurationSection currentSection)) {
+                diff(previousSection, currentSection, path + separator, separator, changed);
+            } else if ((previous instanceof ConfigurationSection) || (current instanceof ConfigurationSection)) {
+                addPaths(previous, path, separator, changed);
+                addPaths(current, path, separator, changed);
+            } else if (!Objects.equals(previous, current)) {
+                changed.add(path);
+            }
+        }
+    }
+
+    /**
+     * Adds the path of the given value, or the paths of every value within it if it is a non-empty section.
+     */
+    private static void addPaths(Object value, String path, char separator, Set<String> changed) {
+        if (value == null)
+            return;
+        if (!(value instanceof ConfigurationSection section) || section.getKeys(false).isEmpty()) {
+            changed.add(path);
+            return;
+        }
+
+        for (String key : section.getKeys(false)) {
+            addPaths(section.get(key, null), path + separator + key, separator, changed);
+        }
+    }
+
+    private static boolean isUnchangedText(ConfigurationSection before, ConfigurationSection after, String key) {
+        if (!(before instanceof LazyYamlConfiguration lazyBefore))
+            return false;
+        if (!(after instanceof LazyYamlConfiguration lazyAfter))
+            return false;
+
+        String text = lazyBefore.getUnloadedText(key);
+        return (text != null) && text.equals(lazyAfter.getUnloadedText(key));
+    }
+}
@@ -0,0 +1,64 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The storage format a {@link Config} is read from and written to. Whatever the format of its file, a Config always
+ * holds its values in a {@link YamlConfiguration}, so the same get, set and save methods work for every format. YAML
+ * is best for files edited by hand, while {@link ConfigFormat#JSON} and {@link ConfigFormat#BINARY} are a lot faster
+ * to load and save for machine-generated data files.
+ */
+public interface ConfigFormat {
+
+    /**
+     * The YAML format, which keeps comments and supports hot reloading of individual sections.
+     */
+    ConfigFormat YAML = new YamlConfigFormat();
+
+    /**
+     * A compact JSON format that is read and written as a stream of tokens. Comments are not stored.
+     */
+    ConfigFormat JSON = new JsonConfigFormat();
+
+    /**
+     * A compact binary format that is not human-readable but the fastest to load and save. Comments are stored.
+     */
+    ConfigFormat BINARY = new BinaryConfigFormat();
+
+    /**
+     * Reads the given content of a file into the given, empty configuration.
+     * @param data The content of the file.
+     * @param config The configuration to read into.
+     * @throws IOException If the content could not be read.
+     * @throws InvalidConfigurationException If the content is not valid in this format.
+     */
+    void load(byte[] data, YamlConfiguration config) throws IOException, InvalidConfigurationException;
+
+    /**
+     * Writes the given configuration in this format.
+     * @param config The configuration to write.
+     * @return The content of the file.
+     * @throws IOException If the configuration contains a value that cannot be written in this format.
+     */
+    byte[] save(YamlConfiguration config) throws IOException;
+
+    /**
+     * Returns the format matching the extension of the given file name: {@link ConfigFormat#JSON} for {@code .json}
+     * files, {@link ConfigFormat#BINARY} for {@code .bin} and {@code .dat} files and {@link ConfigFormat#YAML}
+     * otherwise.
+     * @param name The name of the file.
+     * @return the format matching the extension of the given file name.
+     */
+    static ConfigFormat forFileName(String name) {
+        String lowerCase = name.toLowerCase(Locale.ROOT);
+        if (lowerCase.endsWith(".json"))
+            return JSON;
+        if (lowerCase.endsWith(".bin") || lowerCase.endsWith(".dat"))
+            return BINARY;
+        return YAML;
+    }
+}
@@ -0,0 +1,67 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.function.BiFunction;
+
+/**
+ * A precompiled, typed handle to a single key of a {@link Config}. The value of the key is looked up and converted
+ * only once, and then served from a field until the Config is reloaded or changed through
+ * {@link Config#set(String, Object)}, after which it is resolved again on the next call to {@link ConfigKey#get()}.
+ * ConfigKeys are created through the key methods of Config, such as {@link Config#stringKey(String)}, and are meant
+ * to be stored in a field and reused.
+ * @param <T> The type of the value of this ConfigKey.
+ */
+public final class ConfigKey<T> {
+
+    private final Config config;
+    private final String path;
+    private final BiFunction<ConfigurationSection, String, T> resolver;
+    private volatile Resolved<T> resolved;
+
+    /**
+     * Constructs a new ConfigKey for the given path within the given {@link Config}.
+     * @param config The Config this ConfigKey reads from.
+     * @param path The path of the key within the Config.
+     * @param resolver The function used to look up and convert the value at the given path.
+     */
+    ConfigKey(Config config, String path, BiFunction<ConfigurationSection, String, T> resolver) {
+        this.config = config;
+        this.path = path;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Returns the value of this ConfigKey, resolving it first if the {@link Config} has changed since it was last
+     * resolved.
+     * @return the value of this ConfigKey.
+     */
+    public T get() {
+        int generation = config.getGeneration();
+        Resolved<T> resolved = this.resolved;
+        if ((resolved == null) || (resolved.generation != generation)) {
+            resolved = new Resolved<>(generation, resolver.apply(config.getResolvedSection(), path));
+            this.resolved = resolved;
+        }
+        return resolved.value;
+    }
+
+    /**
+     * Returns the path of this ConfigKey within its {@link Config}.
+     * @return the path of this ConfigKey within its Config.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the {@link Config} this ConfigKey reads from.
+     * @return the Config this ConfigKey reads from.
+     */
+    public Config getConfig() {
+        return config;
+    }
+
+    private record Resolved<T>(int generation, T value) {
+    }
+}
@@ -1,12 +1,33 @@
 package live.chillytheeevee.chillylib.config;
 
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 
 
 /**
@@ -17,8 +38,18 @@ import java.util.Map;
  */
 public class ConfigManager {
 
+    private static final int MAX_WORKER_THREADS = 4;
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+
     private final JavaPlugin plugin;
-    private final Map<String, Config> configs = new HashMap<>();
+    private final Map<String, Config> configs = new ConcurrentHashMap<>();
+    private final DefaultConfigCache defaultConfigCache;
+    private ExecutorService workers;
+    private volatile ConfigSaveQueue saveQueue;
+    private ConfigWatcher watcher;
+    private volatile boolean snapshotCacheEnabled;
+    private final List<ConfigChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private boolean disableListenerRegistered;
 
     /**
      * Constructs a new ConfigManager for the given {@link JavaPlugin}. There should only be one ConfigManager per
@@ -27,10 +58,12 @@ public class ConfigManager {
      */
     public ConfigManager(JavaPlugin plugin) {
         this.plugin = plugin;
+        this.defaultConfigCache = new DefaultConfigCache(plugin);
     }
 
     /**
-     * Returns the internal Map of all {@link Config} files registered with this ConfigManager.
+     * Returns the internal Map of all {@link Config} files registered with this ConfigManager. The Map is safe to read
+     * and iterate from any thread.
      * @return the internal Map of all Config files registered with this ConfigManager.
      */
     public Map<String, Config> getConfigs() {
@@ -39,16 +72,35 @@ public class ConfigManager {
 
     /**
      * Returns the {@link Config} with the given name. If no Config registered with this ConfigManager has the given
-     * name, then a new Config is created and registered with this ConfigManager using the given name.
+     * name, then a new Config is created and registered with this ConfigManager using the given name. This method is
+     * safe to call from any thread, and every caller receives the same Config for the same name.
      * @param name The name of the Config to return.
      * @return The Config value stored within the Config map in this ConfigManager for the given name, or a new Config
      * with the given name if it does not exist within that map.
      */
     public Config getConfig(String name) {
-        if (!configs.containsKey(name))
-            configs.put(name, new Config(plugin, name));
+        Config config = configs.get(name);
+        if (config != null)
+            return config;
 
-        return configs.get(name);
+        // Registered under the same lock that applies settings to all Configs, so that none of them is missed
+        synchronized (this) {
+            return configs.computeIfAbsent(name, this::createConfig);
+        }
+    }
+
+    /**
+     * Creates a new {@link Config} with the given name, applying every setting this ConfigManager applies to all of
+     * its Configs.
+     */
+    private Config createConfig(String name) {
+        Config config = new Config(plugin, name, defaultConfigCache);
+        config.setSaveQueue(saveQueue);
+        config.setSnapshotCacheEnabled(snapshotCacheEnabled);
+        for (ConfigChangeListener listener : changeListeners) {
+            config.addChangeListener(listener);
+        }
+        return config;
     }
 
     /**
@@ -69,6 +121,175 @@ public class ConfigManager {
         }
     }
 
+    /**
+     * Reloads every {@link Config} registered with this ConfigManager on a pool of worker threads instead of the
+     * calling thread. Each Config is parsed into a new YamlConfiguration that is only published once fully loaded, so
+     * readers on the main thread keep seeing the previous values until the reload of that Config has completed.
+     * @return A CompletableFuture that completes with the time taken to reload each Config, sorted by Config name, once
+     * every Config has been reloaded. The future completes exceptionally if any Config failed to reload, including a
+     * Config whose file could not be parsed, with the {@link Config#getLoadError()} of that Config as the cause.
+     */
+    public CompletableFuture<Map<String, Duration>> reloadConfigsAsync() {
+        return forEachConfigAsync(config -> {
+            Exception error = config.reload().getLoadError();
+            if (error != null)
+                throw new CompletionException(error);
+        });
+    }
+
+    /**
+     * Reloads every {@link Config} registered with this ConfigManager in parallel and waits for all of them to finish.
+     * Independent Configs are parsed at the same time, so the total reload time is bound by the slowest Config rather
+     * than the sum of all of them.
+     * @return The time taken to reload each Config, sorted by Config name.
+     * @throws CompletionException If any Config failed to reload.
+     */
+    public Map<String, Duration> reloadConfigsParallel() {
+        return reloadConfigsAsync().join();
+    }
+
+    /**
+     * Saves every {@link Config} registered with this ConfigManager in parallel and waits for all of them to finish.
+     * Each Config is saved exactly as {@link ConfigManager#saveConfig(String)} would.
+     * @return The time taken to save each Config, sorted by Config name.
+     * @throws CompletionException If any Config failed to save.
+     */
+    public Map<String, Duration> saveConfigsParallel() {
+        return forEachConfigAsync(config -> saveConfig(config.getName())).join();
+    }
+
+    /**
+     * Returns the load, parse and save statistics of every {@link Config} registered with this ConfigManager.
+     * @return the statistics of every registered Config, sorted by Config name.
+     */
+    public Map<String, ConfigStats> getStats() {
+        Map<String, ConfigStats> stats = new TreeMap<>();
+        for (Config config : configs.values()) {
+            stats.put(config.getName(), config.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Enables write-behind saving for every {@link Config} registered with this ConfigManager. From then on, changing
+     * or saving a Config only marks it as dirty, and a background flusher writes each dirty Config at most once per
+     * given interval. Every pending write is flushed when the plugin is disabled, after which Configs are saved
+     * synchronously again.
+     * @param interval The time between two flushes of dirty Configs.
+     * @return The {@link ConfigSaveQueue} that now handles all saves, which also exposes write-behind metrics.
+     */
+    public synchronized ConfigSaveQueue enableWriteBehind(Duration interval) {
+        if (saveQueue != null)
+            return saveQueue;
+
+        saveQueue = new ConfigSaveQueue(plugin.getName() + "-config-flusher", plugin.getLogger(), interval);
+        for (Config config : configs.values()) {
+            config.setSaveQueue(saveQueue);
+        }
+
+        registerDisableListener();
+        return saveQueue;
+    }
+
+    /**
+     * Disables write-behind saving, writing every pending change to disk before returning. Configs are saved
+     * synchronously again afterwards.
+     */
+    public synchronized void disableWriteBehind() {
+        if (saveQueue == null)
+            return;
+
+        for (Config config : configs.values()) {
+            config.setSaveQueue(null);
+        }
+        saveQueue.shutdown();
+        saveQueue = null;
+    }
+
+    /**
+     * Returns the {@link ConfigSaveQueue} used for write-behind saving, or null if write-behind saving is disabled.
+     * @return the ConfigSaveQueue used for write-behind saving, or null if write-behind saving is disabled.
+     */
+    public synchronized ConfigSaveQueue getSaveQueue() {
+        return saveQueue;
+    }
+
+    /**
+     * Registers a listener with every {@link Config} registered with this ConfigManager, now and in the future. The
+     * listener is notified with the changed paths whenever one of these Configs is reloaded, including reloads
+     * triggered by {@link ConfigManager#reloadConfigs()} and hot reloading. See
+     * {@link Config#addChangeListener(ConfigChangeListener)}.
+     * @param listener The listener to notify.
+     */
+    public synchronized void addChangeListener(ConfigChangeListener listener) {
+        changeListeners.add(listener);
+        for (Config config : configs.values()) {
+            config.addChangeListener(listener);
+        }
+    }
+
+    /**
+     * Unregisters the given listener from every {@link Config} registered with this ConfigManager.
+     * @param listener The listener to unregister.
+     */
+    public synchronized void removeChangeListener(ConfigChangeListener listener) {
+        changeListeners.remove(listener);
+        for (Config config : configs.values()) {
+            config.removeChangeListener(listener);
+        }
+    }
+
+    /**
+     * Enables or disables the binary snapshot cache for every {@link Config} registered with this ConfigManager, now
+     * and in the future. See {@link Config#setSnapshotCacheEnabled(boolean)}.
+     * @param enabled Whether the snapshot cache should be used.
+     */
+    public synchronized void setSnapshotCacheEnabled(boolean enabled) {
+        snapshotCacheEnabled = enabled;
+        for (Config config : configs.values()) {
+            config.setSnapshotCacheEnabled(enabled);
+        }
+    }
+
+    /**
+     * Enables hot reloading of the {@link Config}s registered with this ConfigManager. The plugin's data folder and all
+     * of its subdirectories are watched for changes, and a Config is reloaded once its file has not changed for the
+     * given debounce period and its content actually differs from what was last loaded or saved.
+     * @param debounce How long a file must be quiet before it is checked for changes.
+     * @return The {@link ConfigWatcher} watching the plugin's data folder.
+     * @throws IOException If the plugin's data folder could not be watched.
+     */
+    public synchronized ConfigWatcher enableHotReload(Duration debounce) throws IOException {
+        if (watcher == null) {
+            watcher = new ConfigWatcher(this, plugin.getDataFolder().toPath(), debounce, plugin.getLogger(),
+                    plugin.getName() + "-config-watcher");
+        }
+        return watcher;
+    }
+
+    /**
+     * Stops hot reloading the {@link Config}s registered with this ConfigManager.
+     */
+    public synchronized void disableHotReload() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Stops the worker threads used by this ConfigManager, stops hot reloading and flushes any pending write-behind
+     * saves. This should be called within the plugin's onDisable method.
+     */
+    public synchronized void shutdown() {
+        disableHotReload();
+        disableWriteBehind();
+        if (workers != null) {
+            workers.shutdown();
+            workers = null;
+        }
+    }
+
     /**
      * Saves every {@link Config} registered within this ConfigManager by internally calling saveConfig(name) for each
      * individual Config name.
@@ -88,46 +309,255 @@ public class ConfigManager {
      */
     public void saveConfig(String name){
         File config = new File(plugin.getDataFolder(), name);
+        try {
+            saveConfig(name, config, config.exists() ? null : readResource(name));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Saves the given config, copying it from the given content of its jar resource if its file does not exist yet.
+     */
+    private void saveConfig(String name, File config, byte[] resource) throws IOException {
         if (!config.exists()){
-            if (plugin.getResource(name) != null) {
-                plugin.saveResource(name, false);
-                getConfig(name).save();
+            if (resource != null) {
+                AtomicFileWriter.write(config.toPath(), resource);
             } else {
-                try {
-                    config.getParentFile().mkdirs();
-                    config.createNewFile();
-                    getConfig(name).save();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
+                config.getParentFile().mkdirs();
+                config.createNewFile();
             }
-        } else {
-            getConfig(name).save();
         }
+        getConfig(name).save();
     }
 
     /**
      * Updates a Config by comparing it to the plugin in the plugin's assigned data folder and copying over any missing
-     * data from the jar file.
+     * data from the jar file. The Config's file is only rewritten if the update actually changes it, and every change
+     * made is logged.
      * @param name The path to the config from the plugin's assigned data file
+     * @return The changes made to the Config's file.
+     */
+    public ConfigChangeSet updateConfig(String name) {
+        try {
+            byte[] resource = readResource(name);
+            if (resource == null)
+                throw new FileNotFoundException(name + " does not exist within the jar file of " + plugin.getName());
+
+            return updateConfig(name, new String(resource, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return updateFailed(name, e);
+        }
+    }
+
+    /**
+     * Updates the given config from the given content of its jar resource, logging and recording any failure.
      */
-    public void updateConfig(String name) {
+    private ConfigChangeSet updateConfig(String name, String template) {
         File configFile = new File(plugin.getDataFolder(), name);
+        Config config = configs.get(name);
+        ConfigFormat format = (config != null) ? config.getFormat() : ConfigFormat.forFileName(name);
+        // Updating rewrites the file as YAML, keeping the comments of the template
+        if (format != ConfigFormat.YAML)
+            return ConfigChangeSet.EMPTY;
+
+        long start = System.nanoTime();
         try {
-            ConfigUpdater.update(plugin, name, configFile, new ArrayList<>());
+            ConfigChangeSet changes = ConfigUpdater.update(template, configFile, new ArrayList<>());
+            if (config != null)
+                config.getStats().recordUpdate(System.nanoTime() - start);
+            if (!changes.isEmpty())
+                plugin.getLogger().info("Updated " + name + ": " + changes);
+            return changes;
         } catch (IOException e) {
-            e.printStackTrace();
+            return updateFailed(name, e);
         }
     }
 
+    private ConfigChangeSet updateFailed(String name, IOException e) {
+        plugin.getLogger().log(Level.SEVERE, "Cannot update " + name, e);
+        Config config = configs.get(name);
+        if (config != null)
+            config.getStats().recordError(e);
+        return ConfigChangeSet.EMPTY;
+    }
+
     /**
      * Saves and updates the given config within this ConfigManager. equivalent to calling saveConfig(name) and then
-     * updateConfig(name).
+     * updateConfig(name), except that the config's resource is only read from the jar file once.
      * @param name The path to the config from the plugin's assigned data file
      */
     public void saveAndUpdateConfig(String name) {
-        saveConfig(name);
-        updateConfig(name);
+        byte[] resource;
+        try {
+            resource = readResource(name);
+            saveConfig(name, new File(plugin.getDataFolder(), name), resource);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (resource != null)
+            updateConfig(name, new String(resource, StandardCharsets.UTF_8));
+        else
+            updateFailed(name, new FileNotFoundException(name + " does not exist within the jar file of "
+                    + plugin.getName()));
+    }
+
+    /**
+     * Provisions every given config in a single pass, which should be preferred over calling
+     * {@link ConfigManager#saveAndUpdateConfig(String)} for each config when a plugin starts up. The resource of every
+     * config is read from the plugin's jar file exactly once and then used to create the config's file if it does not
+     * exist yet, to update the file if it does, and as the defaults of the config. Finally, each config is loaded from
+     * its provisioned file. The configs are provisioned in parallel on the worker threads of this ConfigManager.
+     * <p>
+     * Unlike {@link ConfigManager#saveConfig(String)}, values changed in memory before provisioning are not saved, as
+     * every config is reloaded from its file. Failures are logged and recorded in the {@link ConfigStats} of the
+     * affected config without stopping the other configs from being provisioned.
+     * @param names The paths to the configs from the plugin's assigned data file.
+     * @return The changes made to the file of each config by updating it, sorted by config name.
+     */
+    public Map<String, ConfigChangeSet> provisionConfigs(Collection<String> names) {
+        ExecutorService executor = getWorkers();
+        Map<String, CompletableFuture<ConfigChangeSet>> runs = new TreeMap<>();
+        for (String name : names) {
+            Config config = getConfig(name);
+            runs.computeIfAbsent(name, ignored -> CompletableFuture.supplyAsync(() -> provision(config), executor));
+        }
+
+        Map<String, ConfigChangeSet> changes = new TreeMap<>();
+        for (Map.Entry<String, CompletableFuture<ConfigChangeSet>> run : runs.entrySet()) {
+            changes.put(run.getKey(), run.getValue().join());
+        }
+        return changes;
+    }
+
+    /**
+     * Creates or updates the file of the given config from its jar resource, then reloads the config.
+     */
+    private ConfigChangeSet provision(Config config) {
+        String name = config.getName();
+        File file = new File(plugin.getDataFolder(), name);
+        ConfigChangeSet changes = ConfigChangeSet.EMPTY;
+        try {
+            byte[] resource = readResource(name);
+            String template = (resource != null) ? new String(resource, StandardCharsets.UTF_8) : null;
+            defaultConfigCache.get(name, resource);
+
+            if (!file.exists()) {
+                // A file freshly copied from the jar is already up to date
+                if (resource != null) {
+                    AtomicFileWriter.write(file.toPath(), resource);
+                } else {
+                    file.getParentFile().mkdirs();
+                    file.createNewFile();
+                }
+            } else if (template != null) {
+                changes = updateConfig(name, template);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Cannot provision " + name, e);
+            config.getStats().recordError(e);
+        }
+
+        config.reload();
+        return changes;
+    }
+
+    /**
+     * Reads the resource with the given name from the plugin's jar file.
+     * @param name The name of the resource within the plugin's jar file.
+     * @return The content of the resource, or null if the plugin's jar file does not contain it.
+     * @throws IOException If the resource could not be read.
+     */
+    private byte[] readResource(String name) throws IOException {
+        InputStream resource = plugin.getResource(name);
+        if (resource == null)
+            return null;
+
+        try (InputStream in = resource) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Runs the given task for every registered {@link Config} on the worker pool, timing each run individually.
+     * @param task The task to run for each Config.
+     * @return A CompletableFuture that completes with the time taken for each Config, sorted by Config name.
+     */
+    private CompletableFuture<Map<String, Duration>> forEachConfigAsync(Consumer<Config> task) {
+        List<Config> toRun = new ArrayList<>(configs.values());
+        ExecutorService executor = getWorkers();
+
+        List<CompletableFuture<Duration>> runs = new ArrayList<>(toRun.size());
+        for (Config config : toRun) {
+            runs.add(CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                task.accept(config);
+                return Duration.ofNanos(System.nanoTime() - start);
+            }, executor));
+        }
+
+        return CompletableFuture.allOf(runs.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<String, Duration> timings = new TreeMap<>();
+            for (int i = 0; i < toRun.size(); i++) {
+                timings.put(toRun.get(i).getName(), runs.get(i).join());
+            }
+            return timings;
+        });
+    }
+
+    /**
+     * Returns the pool of worker threads used for off-main-thread Config work, creating it if necessary. Idle workers
+     * stop after a short while, so a ConfigManager that is never shut down does not keep its threads alive.
+     * @return the pool of worker threads used by this ConfigManager.
+     */
+    private synchronized ExecutorService getWorkers() {
+        if (workers == null) {
+            int threads = Math.max(1, Math.min(MAX_WORKER_THREADS, Runtime.getRuntime().availableProcessors()));
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, WORKER_KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable,
+                                plugin.getName() + "-config-worker-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            workers = pool;
+            registerDisableListener();
+        }
+        return workers;
+    }
+
+    /**
+     * Registers the listener that shuts this ConfigManager down when its plugin is disabled, unless it is already
+     * registered or the plugin is not enabled yet.
+     */
+    private synchronized void registerDisableListener() {
+        if (disableListenerRegistered || !plugin.isEnabled())
+            return;
+
+        plugin.getServer().getPluginManager().registerEvents(new PluginDisableListener(), plugin);
+        disableListenerRegistered = true;
+    }
+
+    /**
+     * Stops the worker threads and flushes write-behind saves as soon as the plugin owning this ConfigManager starts
+     * disabling, even if the plugin never calls {@link ConfigManager#shutdown()} itself.
+     */
+    private class PluginDisableListener implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPluginDisable(PluginDisableEvent event) {
+            if (event.getPlugin() != plugin)
+                return;
+
+            // Bukkit drops every listener of a disabled plugin, so a later enable has to register this one again
+            synchronized (ConfigManager.this) {
+                disableListenerRegistered = false;
+            }
+            shutdown();
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package live.chillytheeevee.chillylib.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the key a record component or field is bound to by {@link ConfigBinder}. Without this annotation, the
+ * key is the name of the component or field converted to snake_case, e.g. {@code maxPlayers} is bound to
+ * {@code max_players}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface ConfigPath {
+
+    /**
+     * Returns the key within the bound section.
+     * @return the key within the bound section.
+     */
+    String value();
+}
@@ -0,0 +1,136 @@
+package live.chillytheeevee.chillylib.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A write-behind save queue for {@link Config}s. Instead of rewriting a Config's file on every change, a Config that
+ * is changed or saved is only marked as dirty, and a background flusher writes every dirty Config once per flush
+ * interval. Any number of changes made to a Config within one interval are therefore coalesced into a single write.
+ * <p>
+ * A ConfigSaveQueue is created through {@link ConfigManager#enableWriteBehind(Duration)}, which also makes sure that a
+ * final flush happens when the plugin is disabled.
+ */
+public class ConfigSaveQueue {
+
+    private final Logger logger;
+    private final Set<Config> dirtyConfigs = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher;
+
+    // Metrics
+    private final LongAdder coalescedMutations = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    /**
+     * Constructs a new ConfigSaveQueue that flushes every dirty {@link Config} once per given interval.
+     * @param name The name of the background flusher thread.
+     * @param logger The Logger to report failed flushes to.
+     * @param interval The time between two flushes.
+     */
+    ConfigSaveQueue(String name, Logger logger, Duration interval) {
+        this.logger = logger;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long intervalMillis = Math.max(1, interval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marks the given {@link Config} as dirty so that it is written to disk by the next flush.
+     * @param config The Config to mark as dirty.
+     */
+    void markDirty(Config config) {
+        dirtyConfigs.add(config);
+    }
+
+    /**
+     * Immediately writes every dirty {@link Config} to disk.
+     */
+    public synchronized void flush() {
+        List<Config> toWrite = new ArrayList<>(dirtyConfigs);
+        for (Config config : toWrite) {
+            dirtyConfigs.remove(config);
+
+            int mutations = config.takePendingMutations();
+            if (mutations > 1)
+                coalescedMutations.add(mutations - 1);
+
+            long written = config.write();
+            // A write skipped because the file already holds the same content does not count
+            if (written > 0) {
+                bytesWritten.add(written);
+                writes.increment();
+            }
+        }
+    }
+
+    /**
+     * Stops the background flusher and writes every remaining dirty {@link Config} to disk.
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS))
+                logger.warning("Timed out while waiting for the config flusher to finish");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Returns whether any {@link Config} is currently waiting to be written to disk.
+     * @return true if any Config is currently waiting to be written to disk.
+     */
+    public boolean hasPendingWrites() {
+        return !dirtyConfigs.isEmpty();
+    }
+
+    /**
+     * Returns the number of changes that did not need their own write because they were coalesced into the write of
+     * an earlier or later change to the same {@link Config}.
+     * @return the number of changes that were coalesced into another write.
+     */
+    public long getCoalescedMutations() {
+        return coalescedMutations.sum();
+    }
+
+    /**
+     * Returns the total number of bytes written to disk by this ConfigSaveQueue.
+     * @return the total number of bytes written to disk by this ConfigSaveQueue.
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Returns the number of {@link Config} writes performed by this ConfigSaveQueue. Flushes of Configs whose file
+     * already held the same content are not counted.
+     * @return the number of Config writes performed by this ConfigSaveQueue.
+     */
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Failed to flush dirty configs", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Stores parsed {@link Config}s as binary snapshots within the plugin's data folder, so that an unchanged config file
+ * can be loaded at startup without parsing its YAML again. Each snapshot is keyed by the size, modification time and
+ * content hash of the file it was created from, and is ignored as soon as any of these change.
+ */
+final class ConfigSnapshotCache {
+
+    /**
+     * The directory within the plugin's data folder that holds all snapshots.
+     */
+    static final String DIRECTORY = ".snapshots";
+
+    private static final int MAGIC = 0x434C534E;
+    private static final int VERSION = 1;
+
+    private ConfigSnapshotCache() {
+    }
+
+    /**
+     * Returns the path of the snapshot of the config with the given name.
+     * @param dataFolder The plugin's data folder.
+     * @param name The name of the config.
+     * @return the path of the snapshot of the config with the given name.
+     */
+    static Path getSnapshotPath(Path dataFolder, String name) {
+        return dataFolder.resolve(DIRECTORY).resolve(name + ".bin");
+    }
+
+    /**
+     * Loads the snapshot at the given path if it was created from a file identical to the given source.
+     * @param snapshot The path of the snapshot.
+     * @param source The current FileFingerprint of the file the snapshot was created from.
+     * @return The configuration stored within the snapshot, or null if there is no snapshot for the given source.
+     * @throws IOException If the snapshot exists but could not be read.
+     */
+    static YamlConfiguration read(Path snapshot, FileFingerprint source) throws IOException {
+        ByteArrayInputStream bytes;
+        try {
+            bytes = new ByteArrayInputStream(Files.readAllBytes(snapshot));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        DataInputStream in = new DataInputStream(bytes);
+        if ((in.readInt() != MAGIC) || (in.readInt() != VERSION))
+            return null;
+        if (!FileFingerprint.readFrom(in).isIdenticalTo(source))
+            return null;
+
+        YamlConfiguration config = new YamlConfiguration();
+        BinaryConfigCodec.decode(bytes, config);
+        return config;
+    }
+
+    /**
+     * Atomically writes a snapshot of the given configuration, created from the given source file, to the given path.
+     * @param snapshot The path of the snapshot.
+     * @param source The FileFingerprint of the file the configuration was parsed from.
+     * @param config The parsed configuration.
+     * @throws IOException If the snapshot could not be written or the configuration contains values that cannot be
+     * stored within a snapshot.
+     */
+    static void write(Path snapshot, FileFingerprint source, YamlConfiguration config) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            source.writeTo(out);
+            BinaryConfigCodec.encode(config, out);
+        }
+        AtomicFileWriter.write(snapshot, bytes.toByteArray());
+    }
+}
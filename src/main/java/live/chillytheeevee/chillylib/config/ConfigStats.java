@@ -0,0 +1,182 @@
+package live.chillytheeevee.chillylib.config;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load, parse and save statistics of a single {@link Config}. The statistics are updated by every reload, save and
+ * update of the Config through plain field writes and {@link LongAdder}s, so collecting them costs next to nothing and
+ * they may be read from any thread at any time.
+ */
+public final class ConfigStats {
+
+    private final LongAdder reloadCount = new LongAdder();
+    private final LongAdder totalParseNanos = new LongAdder();
+    private final LongAdder saveCount = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private volatile long lastReloadNanos;
+    private volatile long lastParseNanos;
+    private volatile long lastSaveNanos;
+    private volatile long lastUpdateNanos;
+    private volatile long fileSize;
+    private volatile int keyCount;
+    private volatile Throwable lastError;
+    private volatile Instant lastErrorTime;
+
+    ConfigStats() {
+    }
+
+    /**
+     * Records a completed reload.
+     * @param reloadNanos The time taken by the entire reload.
+     * @param parseNanos The time taken to parse the file.
+     * @param fileSize The size of the file in bytes.
+     * @param keyCount The number of keys loaded.
+     */
+    void recordReload(long reloadNanos, long parseNanos, long fileSize, int keyCount) {
+        reloadCount.increment();
+        totalParseNanos.add(parseNanos);
+        this.lastReloadNanos = reloadNanos;
+        this.lastParseNanos = parseNanos;
+        this.fileSize = fileSize;
+        this.keyCount = keyCount;
+    }
+
+    /**
+     * Records a save that wrote the file to disk.
+     * @param saveNanos The time taken to serialize and write the file.
+     * @param bytes The number of bytes written.
+     */
+    void recordSave(long saveNanos, long bytes) {
+        saveCount.increment();
+        bytesWritten.add(bytes);
+        this.lastSaveNanos = saveNanos;
+        this.fileSize = bytes;
+    }
+
+    /**
+     * Records an update of the file from its template within the plugin jar.
+     * @param updateNanos The time taken by the update.
+     */
+    void recordUpdate(long updateNanos) {
+        this.lastUpdateNanos = updateNanos;
+    }
+
+    /**
+     * Records an error that occurred while loading, saving or updating the file.
+     * @param error The error that occurred.
+     */
+    void recordError(Throwable error) {
+        errorCount.increment();
+        this.lastError = error;
+        this.lastErrorTime = Instant.now();
+    }
+
+    /**
+     * Returns the number of times the Config was reloaded.
+     * @return the number of times the Config was reloaded.
+     */
+    public long getReloadCount() {
+        return reloadCount.sum();
+    }
+
+    /**
+     * Returns the time taken by the last reload, including reading the file, parsing it and applying defaults.
+     * @return the time taken by the last reload.
+     */
+    public Duration getLastReloadTime() {
+        return Duration.ofNanos(lastReloadNanos);
+    }
+
+    /**
+     * Returns the time taken to parse the file during the last reload.
+     * @return the time taken to parse the file during the last reload.
+     */
+    public Duration getLastParseTime() {
+        return Duration.ofNanos(lastParseNanos);
+    }
+
+    /**
+     * Returns the average time taken to parse the file over all reloads.
+     * @return the average time taken to parse the file, or zero if the Config was never reloaded.
+     */
+    public Duration getAverageParseTime() {
+        long reloads = reloadCount.sum();
+        return (reloads == 0) ? Duration.ZERO : Duration.ofNanos(totalParseNanos.sum() / reloads);
+    }
+
+    /**
+     * Returns the number of times the Config was written to disk. Saves that did not change the file are not counted.
+     * @return the number of times the Config was written to disk.
+     */
+    public long getSaveCount() {
+        return saveCount.sum();
+    }
+
+    /**
+     * Returns the time taken by the last save that wrote the file to disk.
+     * @return the time taken by the last save that wrote the file to disk.
+     */
+    public Duration getLastSaveTime() {
+        return Duration.ofNanos(lastSaveNanos);
+    }
+
+    /**
+     * Returns the total number of bytes written to disk by saves of the Config.
+     * @return the total number of bytes written to disk.
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Returns the time taken by the last update of the file from its template within the plugin jar.
+     * @return the time taken by the last update.
+     */
+    public Duration getLastUpdateTime() {
+        return Duration.ofNanos(lastUpdateNanos);
+    }
+
+    /**
+     * Returns the size of the file in bytes as of the last reload or save.
+     * @return the size of the file in bytes.
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Returns the number of keys, including the keys of nested sections, loaded by the last reload. For a lazily
+     * loaded Config, only the top-level keys are counted.
+     * @return the number of keys loaded by the last reload.
+     */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * Returns the number of errors that occurred while loading, saving or updating the Config.
+     * @return the number of errors that occurred.
+     */
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    /**
+     * Returns the last error that occurred while loading, saving or updating the Config.
+     * @return the last error that occurred, or null if none occurred.
+     */
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Returns when the last error occurred.
+     * @return when the last error occurred, or null if none occurred.
+     */
+    public Instant getLastErrorTime() {
+        return lastErrorTime;
+    }
+}
@@ -1,6 +1,7 @@
 package live.chillytheeevee.chillylib.config;
 
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
@@ -9,136 +10,202 @@ import org.yaml.snakeyaml.Yaml;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * A class to update/add new sections/keys to your config while keeping your current values and keeping your comments
  * Algorithm:
- * Read the new file and scan for comments and ignored sections, if ignored section is found it is treated as a comment.
- * Read and write each line of the new config, if the old config has value for the given key it writes that value in the new config.
+ * Read the new file once and tokenize it in a single pass, scanning for comments and ignored sections. If an ignored
+ * section is found it is treated as a comment. Ignored and included sections are matched with a prefix trie, so each
+ * key is matched in one step per key segment instead of once per section.
+ * Plan the update by comparing the keys and comments of the new file with the current config. If nothing would change,
+ * the current config is not touched at all.
+ * Otherwise, stream each key of the new config into the output, if the old config has value for the given key it
+ * writes that value in the new config.
  * If a key has an attached comment above it, it is written first.
+ * The updated config is written atomically, and only if its content actually changed.
  * @author tchristofferson
  */
 public class ConfigUpdater {
 
+    private static final String[] PREFIX_SPACES = new String[16];
+
+    static {
+        PREFIX_SPACES[0] = "";
+        for (int i = 1; i < PREFIX_SPACES.length; i++) {
+            PREFIX_SPACES[i] = PREFIX_SPACES[i - 1] + "  ";
+        }
+    }
+
     /**
      * Update a yaml file from a resource inside your plugin jar
      * @param plugin Your plugin
      * @param resourceName The yaml file name to update from, typically config.yml
      * @param toUpdate The yaml file to update
      * @param ignoredSections List of sections to ignore and copy from the current config
+     * @return The changes made to the yaml file. The file is not written at all if there are none.
      * @throws IOException If an IOException occurs
      */
-    public static void update(Plugin plugin, String resourceName, File toUpdate, List<String> ignoredSections) throws IOException {
-        BufferedReader newReader = new BufferedReader(new InputStreamReader(plugin.getResource(resourceName), StandardCharsets.UTF_8));
-        List<String> newLines = newReader.lines().collect(Collectors.toList());
-        newReader.close();
+    public static ConfigChangeSet update(Plugin plugin, String resourceName, File toUpdate, List<String> ignoredSections) throws IOException {
+        return update(readResource(plugin, resourceName), toUpdate, ignoredSections);
+    }
 
-        FileConfiguration oldConfig = YamlConfiguration.loadConfiguration(toUpdate);
-        FileConfiguration newConfig = YamlConfiguration.loadConfiguration(new InputStreamReader(plugin.getResource(resourceName), StandardCharsets.UTF_8));
-        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(toUpdate), StandardCharsets.UTF_8));
+    /**
+     * Update a yaml file from the given template text
+     * @param template The content of the yaml file to update from
+     * @param toUpdate The yaml file to update
+     * @param ignoredSections List of sections to ignore and copy from the current config
+     * @return The changes made to the yaml file. The file is not written at all if there are none.
+     * @throws IOException If an IOException occurs
+     */
+    public static ConfigChangeSet update(String template, File toUpdate, List<String> ignoredSections) throws IOException {
+        FileConfiguration newConfig = parseTemplate(template);
+        return merge(template, newConfig, toUpdate, ignoredSections(newConfig, ignoredSections), false, true);
+    }
 
-        List<String> ignoredSectionsArrayList = new ArrayList<>(ignoredSections);
-        //ignoredSections can ONLY contain configurations sections
-        ignoredSectionsArrayList.removeIf(ignoredSection -> !newConfig.isConfigurationSection(ignoredSection));
+    /**
+     * Computes the changes that {@link ConfigUpdater#update(Plugin, String, File, List)} would make to a yaml file
+     * without writing anything.
+     * @param plugin Your plugin
+     * @param resourceName The yaml file name to update from, typically config.yml
+     * @param toUpdate The yaml file to update
+     * @param ignoredSections List of sections to ignore and copy from the current config
+     * @return The changes an update would make to the yaml file.
+     * @throws IOException If an IOException occurs
+     */
+    public static ConfigChangeSet plan(Plugin plugin, String resourceName, File toUpdate, List<String> ignoredSections) throws IOException {
+        String template = readResource(plugin, resourceName);
+        FileConfiguration newConfig = parseTemplate(template);
+        return merge(template, newConfig, toUpdate, ignoredSections(newConfig, ignoredSections), false, false);
+    }
 
-        Yaml yaml = new Yaml();
-        Map<String, String> comments = parseComments(newLines, ignoredSectionsArrayList, oldConfig, yaml);
-        write(newConfig, oldConfig, comments, ignoredSectionsArrayList, writer, yaml);
+    /**
+     * Update a yaml file from a resource inside your plugin jar, only adding new keys inside the given sections. Keys
+     * outside of these sections are kept as they are in the current config.
+     * @param plugin Your plugin
+     * @param resourceName The yaml file name to update from, typically config.yml
+     * @param toUpdate The yaml file to update
+     * @param onlyUpdateTheseSections List of sections to update
+     * @return The changes made to the yaml file. The file is not written at all if there are none.
+     * @throws IOException If an IOException occurs
+     */
+    public static ConfigChangeSet updateWithFilter(Plugin plugin, String resourceName, File toUpdate, List<String> onlyUpdateTheseSections) throws IOException {
+        String template = readResource(plugin, resourceName);
+        FileConfiguration newConfig = parseTemplate(template);
+        //includedSections can ONLY contain configurations sections
+        return merge(template, newConfig, toUpdate, ignoredSections(newConfig, onlyUpdateTheseSections), true, true);
     }
 
-    public static void updateWithFilter(Plugin plugin, String resourceName, File toUpdate, List<String> onlyUpdateTheseSections) throws IOException {
-        BufferedReader newReader = new BufferedReader(new InputStreamReader(plugin.getResource(resourceName), StandardCharsets.UTF_8));
-        List<String> newLines = newReader.lines().collect(Collectors.toList());
-        newReader.close();
+    private static String readResource(Plugin plugin, String resourceName) throws IOException {
+        InputStream resource = plugin.getResource(resourceName);
+        if (resource == null)
+            throw new FileNotFoundException(resourceName + " does not exist within the jar file of " + plugin.getName());
 
-        FileConfiguration oldConfig = YamlConfiguration.loadConfiguration(toUpdate);
-        FileConfiguration newConfig = YamlConfiguration.loadConfiguration(new InputStreamReader(plugin.getResource(resourceName), StandardCharsets.UTF_8));
-        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(toUpdate), StandardCharsets.UTF_8));
+        try (InputStream in = resource) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
 
-        List<String> includedSectionsArrayList = new ArrayList<>(onlyUpdateTheseSections);
-        //ignoredSections can ONLY contain configurations sections
-        includedSectionsArrayList.removeIf(newConfig::isConfigurationSection);
+    private static FileConfiguration parseTemplate(String template) throws IOException {
+        YamlConfiguration newConfig = new YamlConfiguration();
+        try {
+            newConfig.loadFromString(template);
+        } catch (InvalidConfigurationException e) {
+            throw new IOException("Template is not a valid yaml file", e);
+        }
+        return newConfig;
+    }
 
-        Yaml yaml = new Yaml();
-        Map<String, String> comments = parseComments(newLines, includedSectionsArrayList, oldConfig, yaml);
-        write(newConfig, oldConfig, comments, includedSectionsArrayList, writer, yaml);
+    //ignoredSections can ONLY contain configurations sections
+    private static SectionTrie ignoredSections(FileConfiguration newConfig, List<String> sections) {
+        SectionTrie trie = new SectionTrie();
+        for (String section : sections) {
+            if (newConfig.isConfigurationSection(section))
+                trie.add(section);
+        }
+        return trie;
     }
 
-    private static void writeWithFilter(FileConfiguration newConfig, FileConfiguration oldConfig, Map<String, String> comments, List<String> includedSections, BufferedWriter writer, Yaml yaml) throws IOException {
-        outer: for (String key : newConfig.getKeys(true)) {
-            String[] keys = key.split("\\.");
-            String actualKey = keys[keys.length - 1];
-            String comment = comments.remove(key);
+    //Plans the update first and only renders and writes the new file if the plan contains any changes
+    private static ConfigChangeSet merge(String template, FileConfiguration newConfig, File toUpdate, SectionTrie sections, boolean include, boolean apply) throws IOException {
+        String existing = toUpdate.exists() ? new String(Files.readAllBytes(toUpdate.toPath()), StandardCharsets.UTF_8) : "";
+        FileConfiguration oldConfig = YamlConfiguration.loadConfiguration(new StringReader(existing));
 
-            StringBuilder prefixBuilder = new StringBuilder();
-            int indents = keys.length - 1;
-            appendPrefixSpaces(prefixBuilder, indents);
-            String prefixSpaces = prefixBuilder.toString();
+        ConfigChangeSet changes = diff(template, existing, newConfig, oldConfig, sections, include);
+        if (!apply || changes.isEmpty())
+            return changes;
 
-            if (comment != null) {
-                writer.write(comment);//No \n character necessary, new line is automatically at end of comment
-            }
+        Yaml yaml = new Yaml();
+        Map<String, String> comments = parseComments(template, include ? new SectionTrie() : sections, oldConfig, yaml);
 
-            for (String ignoredSection : includedSections) {
-                if (!key.startsWith(ignoredSection)) {
-                    continue outer;
-                }
-            }
+        AtomicFileWriter.writeIfChanged(toUpdate.toPath(),
+                writer -> write(newConfig, oldConfig, comments, sections, include, writer, yaml));
+        return changes;
+    }
 
-            Object newObj = newConfig.get(key);
-            Object oldObj = oldConfig.get(key);
-            if (newObj instanceof ConfigurationSection && oldObj instanceof ConfigurationSection) {
-                //write the old section
-                writeSection(writer, actualKey, prefixSpaces, (ConfigurationSection) oldObj);
-            } else if (newObj instanceof ConfigurationSection) {
-                //write the new section, old value is no more
-                writeSection(writer, actualKey, prefixSpaces, (ConfigurationSection) newObj);
-            } else if (oldObj != null) {
-                //write the old object
-                write(oldObj, actualKey, prefixSpaces, yaml, writer);
-            } else {
-                //write new object
-                write(newObj, actualKey, prefixSpaces, yaml, writer);
-            }
+    //Computes which keys would be added or removed and which comments would change, mirroring what write does
+    private static ConfigChangeSet diff(String template, String existing, FileConfiguration newConfig, FileConfiguration oldConfig, SectionTrie sections, boolean include) throws IOException {
+        SectionTrie noSections = new SectionTrie();
+        Map<String, String> templateComments = parseComments(template, noSections, oldConfig, null);
+        Map<String, String> existingComments = parseComments(existing, noSections, oldConfig, null);
+
+        Set<String> added = new LinkedHashSet<>();
+        Set<String> changedComments = new LinkedHashSet<>();
+        for (String key : newConfig.getKeys(true)) {
+            SectionTrie.Match match = sections.match(key);
+            if (!include && match == SectionTrie.Match.WITHIN)
+                continue;
+
+            boolean exists = oldConfig.contains(key);
+            if (include && match == SectionTrie.Match.NONE && !exists)
+                continue;
+
+            if (!exists)
+                added.add(key);
+            if (!Objects.equals(templateComments.get(key), existingComments.get(key)))
+                changedComments.add(key);
         }
+        if (!Objects.equals(templateComments.get(null), existingComments.get(null)))
+            changedComments.add("");
 
-        String danglingComments = comments.get(null);
+        Set<String> removed = new LinkedHashSet<>();
+        for (String key : oldConfig.getKeys(true)) {
+            if (!include && sections.match(key) == SectionTrie.Match.WITHIN)
+                continue;
 
-        if (danglingComments != null) {
-            writer.write(danglingComments);
+            if (!newConfig.contains(key))
+                removed.add(key);
         }
 
-        writer.close();
+        return new ConfigChangeSet(added, removed, changedComments);
     }
 
     //Write method doing the work.
     //It checks if key has a comment associated with it and writes comment then the key and value
-    private static void write(FileConfiguration newConfig, FileConfiguration oldConfig, Map<String, String> comments, List<String> ignoredSections, BufferedWriter writer, Yaml yaml) throws IOException {
-        outer: for (String key : newConfig.getKeys(true)) {
-            String[] keys = key.split("\\.");
-            String actualKey = keys[keys.length - 1];
+    private static void write(FileConfiguration newConfig, FileConfiguration oldConfig, Map<String, String> comments, SectionTrie sections, boolean include, Writer writer, Yaml yaml) throws IOException {
+        for (String key : newConfig.getKeys(true)) {
+            int lastSeparator = key.lastIndexOf('.');
+            String actualKey = key.substring(lastSeparator + 1);
             String comment = comments.remove(key);
+            String prefixSpaces = getPrefixSpaces(countSeparators(key));
 
-            StringBuilder prefixBuilder = new StringBuilder();
-            int indents = keys.length - 1;
-            appendPrefixSpaces(prefixBuilder, indents);
-            String prefixSpaces = prefixBuilder.toString();
+            SectionTrie.Match match = sections.match(key);
+            if (!include && match == SectionTrie.Match.WITHIN) {
+                continue;
+            }
 
-            if (comment != null) {
-                writer.write(comment);//No \n character necessary, new line is automatically at end of comment
+            Object oldObj = oldConfig.get(key);
+            if (include && match == SectionTrie.Match.NONE && oldObj == null) {
+                //outside of the included sections, only keys that already exist are written
+                continue;
             }
 
-            for (String ignoredSection : ignoredSections) {
-                if (key.startsWith(ignoredSection)) {
-                    continue outer;
-                }
+            if (comment != null) {
+                writer.write(comment);//No \n character necessary, new line is automatically at end of comment
             }
 
             Object newObj = newConfig.get(key);
-            Object oldObj = oldConfig.get(key);
-
             if (newObj instanceof ConfigurationSection && oldObj instanceof ConfigurationSection) {
                 //write the old section
                 writeSection(writer, actualKey, prefixSpaces, (ConfigurationSection) oldObj);
@@ -159,13 +226,11 @@ public class ConfigUpdater {
         if (danglingComments != null) {
             writer.write(danglingComments);
         }
-
-        writer.close();
     }
 
     //Doesn't work with configuration sections, must be an actual object
     //Auto checks if it is serializable and writes to file
-    private static void write(Object obj, String actualKey, String prefixSpaces, Yaml yaml, BufferedWriter writer) throws IOException {
+    private static void write(Object obj, String actualKey, String prefixSpaces, Yaml yaml, Writer writer) throws IOException {
         if (obj instanceof ConfigurationSerializable) {
             writer.write(prefixSpaces + actualKey + ": " + yaml.dump(((ConfigurationSerializable) obj).serialize()));
         } else if (obj instanceof String) {
@@ -181,7 +246,7 @@ public class ConfigUpdater {
     }
 
     //Writes a configuration section
-    private static void writeSection(BufferedWriter writer, String actualKey, String prefixSpaces, ConfigurationSection section) throws IOException {
+    private static void writeSection(Writer writer, String actualKey, String prefixSpaces, ConfigurationSection section) throws IOException {
         if (section.getKeys(false).isEmpty()) {
             writer.write(prefixSpaces + actualKey + ": {}");
         } else {
@@ -192,7 +257,7 @@ public class ConfigUpdater {
     }
 
     //Writes a list of any object
-    private static void writeList(List list, String actualKey, String prefixSpaces, Yaml yaml, BufferedWriter writer) throws IOException {
+    private static void writeList(List list, String actualKey, String prefixSpaces, Yaml yaml, Writer writer) throws IOException {
         writer.write(getListAsString(list, actualKey, prefixSpaces, yaml));
     }
 
@@ -229,40 +294,77 @@ public class ConfigUpdater {
     }
 
     //Key is the config key, value = comment and/or ignored sections
-    //Parses comments, blank lines, and ignored sections
-    private static Map<String, String> parseComments(List<String> lines, List<String> ignoredSections, FileConfiguration oldConfig, Yaml yaml) {
+    //Parses comments, blank lines, and ignored sections in a single pass over the template.
+    //The full key of every line is tracked with a stack of its parent keys, and the trie node of every parent key is
+    //kept alongside it, so neither the key nor the ignored sections have to be split or scanned again.
+    private static Map<String, String> parseComments(String template, SectionTrie ignoredSections, FileConfiguration oldConfig, Yaml yaml) throws IOException {
         Map<String, String> comments = new HashMap<>();
         StringBuilder builder = new StringBuilder();
-        StringBuilder keyBuilder = new StringBuilder();
-        int lastLineIndentCount = 0;
+        //Comments after an ignored section only belong to the next key if that key is outside of the section
+        StringBuilder pending = new StringBuilder();
+
+        String[] keys = new String[8];
+        int[] indents = new int[8];
+        SectionTrie.Node[] nodes = new SectionTrie.Node[8];
+        int depth = 0;
+        int ignoredDepth = -1;
+
+        BufferedReader reader = new BufferedReader(new StringReader(template));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int indent = countIndent(line);
+
+            if (indent == line.length() || line.charAt(indent) == '#') {
+                (ignoredDepth < 0 ? builder : pending).append(line).append("\n");
+                continue;
+            }
 
-        outer: for (String line : lines) {
-            if (line != null && line.trim().startsWith("-"))
+            int separator = line.indexOf(':', indent);
+            if (line.charAt(indent) == '-' || separator < 0)
                 continue;
 
-            if (line == null || line.trim().equals("") || line.trim().startsWith("#")) {
-                builder.append(line).append("\n");
-            } else {
-                lastLineIndentCount = setFullKey(keyBuilder, line, lastLineIndentCount);
+            while (depth > 0 && indents[depth - 1] >= indent) {
+                depth--;
+            }
+            if (ignoredDepth >= depth) {
+                ignoredDepth = -1;
+                builder.append(pending);
+            }
+            pending.setLength(0);
+            if (ignoredDepth >= 0)
+                continue;
+
+            String key = line.substring(indent, separator);
+            String fullKey = depth == 0 ? key : keys[depth - 1] + "." + key;
+            SectionTrie.Node parent = depth == 0 ? ignoredSections.root() : nodes[depth - 1];
+            SectionTrie.Node node = parent == null ? null : parent.child(key);
 
-                for (String ignoredSection : ignoredSections) {
-                    if (keyBuilder.toString().equals(ignoredSection)) {
-                        Object value = oldConfig.get(keyBuilder.toString());
+            if (depth == keys.length) {
+                keys = Arrays.copyOf(keys, depth * 2);
+                indents = Arrays.copyOf(indents, depth * 2);
+                nodes = Arrays.copyOf(nodes, depth * 2);
+            }
+            keys[depth] = fullKey;
+            indents[depth] = indent;
+            nodes[depth] = node;
 
-                        if (value instanceof ConfigurationSection)
-                            appendSection(builder, (ConfigurationSection) value, new StringBuilder(getPrefixSpaces(lastLineIndentCount)), yaml);
+            if (node != null && node.isSection()) {
+                Object value = oldConfig.get(fullKey);
 
-                        continue outer;
-                    }
-                }
+                if (value instanceof ConfigurationSection)
+                    appendSection(builder, (ConfigurationSection) value, new StringBuilder(getPrefixSpaces(depth)), yaml);
 
-                if (keyBuilder.length() > 0) {
-                    comments.put(keyBuilder.toString(), builder.toString());
-                    builder.setLength(0);
-                }
+                ignoredDepth = depth;
+                depth++;
+                continue;
             }
+            depth++;
+
+            comments.put(fullKey, builder.toString());
+            builder.setLength(0);
         }
 
+        builder.append(pending);
         if (builder.length() > 0) {
             comments.put(null, builder.toString());
         }
@@ -297,77 +399,36 @@ public class ConfigUpdater {
         }
     }
 
-    //Counts spaces in front of key and divides by 2 since 1 indent = 2 spaces
-    private static int countIndents(String s) {
+    //Counts the spaces in front of a line
+    private static int countIndent(String s) {
         int spaces = 0;
 
-        for (char c : s.toCharArray()) {
-            if (c == ' ') {
-                spaces += 1;
-            } else {
-                break;
-            }
+        while (spaces < s.length() && s.charAt(spaces) == ' ') {
+            spaces++;
         }
 
-        return spaces / 2;
+        return spaces;
     }
 
-    //Ex. keyBuilder = key1.key2.key3 --> key1.key2
-    private static void removeLastKey(StringBuilder keyBuilder) {
-        String temp = keyBuilder.toString();
-        String[] keys = temp.split("\\.");
+    //Ex. key1.key2.key3 --> 2
+    private static int countSeparators(String fullKey) {
+        int separators = 0;
 
-        if (keys.length == 1) {
-            keyBuilder.setLength(0);
-            return;
+        for (int i = fullKey.indexOf('.'); i >= 0; i = fullKey.indexOf('.', i + 1)) {
+            separators++;
         }
 
-        temp = temp.substring(0, temp.length() - keys[keys.length - 1].length() - 1);
-        keyBuilder.setLength(temp.length());
+        return separators;
     }
 
     private static String getKeyFromFullKey(String fullKey) {
-        String[] keys = fullKey.split("\\.");
-        return keys[keys.length - 1];
-    }
-
-    //Updates the keyBuilder and returns configLines number of indents
-    private static int setFullKey(StringBuilder keyBuilder, String configLine, int lastLineIndentCount) {
-        int currentIndents = countIndents(configLine);
-        String key = configLine.trim().split(":")[0];
-
-        if (keyBuilder.length() == 0) {
-            keyBuilder.append(key);
-        } else if (currentIndents == lastLineIndentCount) {
-            //Replace the last part of the key with current key
-            removeLastKey(keyBuilder);
-
-            if (keyBuilder.length() > 0) {
-                keyBuilder.append(".");
-            }
-
-            keyBuilder.append(key);
-        } else if (currentIndents > lastLineIndentCount) {
-            //Append current key to the keyBuilder
-            keyBuilder.append(".").append(key);
-        } else {
-            int difference = lastLineIndentCount - currentIndents;
-
-            for (int i = 0; i < difference + 1; i++) {
-                removeLastKey(keyBuilder);
-            }
-
-            if (keyBuilder.length() > 0) {
-                keyBuilder.append(".");
-            }
-
-            keyBuilder.append(key);
-        }
-
-        return currentIndents;
+        return fullKey.substring(fullKey.lastIndexOf('.') + 1);
     }
 
     private static String getPrefixSpaces(int indents) {
+        if (indents < PREFIX_SPACES.length)
+            return PREFIX_SPACES[indents];
+
         StringBuilder builder = new StringBuilder();
 
         for (int i = 0; i < indents; i++) {
@@ -377,10 +438,6 @@ public class ConfigUpdater {
         return builder.toString();
     }
 
-    private static void appendPrefixSpaces(StringBuilder builder, int indents) {
-        builder.append(getPrefixSpaces(indents));
-    }
-
     private static String formatStringValue(String value) {
         if (value.contains("'") || value.contains("\"")) {
             return "'" + value.replace("'", "''") + "'";
@@ -388,4 +445,4 @@ public class ConfigUpdater {
             return "'" + value + "'";
         }
     }
-}
\ No newline at end of file
+}
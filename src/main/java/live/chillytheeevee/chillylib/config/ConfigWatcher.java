@@ -0,0 +1,158 @@
+package live.chillytheeevee.chillylib.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Watches a plugin's data folder, including all of its subdirectories, and reloads the {@link Config}s whose files are
+ * edited while the server is running. Bursts of file events, like the ones an editor produces while saving, are
+ * debounced so that a Config is only checked once the file has been quiet for the debounce period. Only Configs whose
+ * content actually changed are reloaded; every other Config keeps its current YamlConfiguration.
+ * <p>
+ * A ConfigWatcher is created through {@link ConfigManager#enableHotReload(Duration)}.
+ */
+public class ConfigWatcher {
+
+    private final ConfigManager configManager;
+    private final Path root;
+    private final long debounceNanos;
+    private final Logger logger;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Map<Path, Long> pendingChanges = new HashMap<>();
+    private final Thread thread;
+
+    /**
+     * Constructs and starts a new ConfigWatcher for the given data folder.
+     * @param configManager The ConfigManager whose Configs should be reloaded.
+     * @param root The data folder to watch.
+     * @param debounce How long a file must be quiet before it is checked for changes.
+     * @param logger The Logger to report reloads and failures to.
+     * @param name The name of the watcher thread.
+     * @throws IOException If the data folder could not be watched.
+     */
+    ConfigWatcher(ConfigManager configManager, Path root, Duration debounce, Logger logger, String name)
+            throws IOException {
+        this.configManager = configManager;
+        this.root = root.toAbsolutePath().normalize();
+        this.debounceNanos = debounce.toNanos();
+        this.logger = logger;
+        this.watchService = this.root.getFileSystem().newWatchService();
+
+        Files.createDirectories(this.root);
+        registerAll(this.root);
+
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops this ConfigWatcher. Changes that are still being debounced are discarded.
+     */
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close config watcher", e);
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = pendingChanges.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(nanosUntilNextDue(), TimeUnit.NANOSECONDS);
+
+                if (key != null)
+                    handleEvents(key);
+
+                reloadDueChanges();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    private void handleEvents(WatchKey key) {
+        Path directory = directories.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if ((directory == null) || (event.kind() == StandardWatchEventKinds.OVERFLOW))
+                continue;
+
+            Path changed = directory.resolve((Path) event.context());
+            if ((event.kind() == StandardWatchEventKinds.ENTRY_CREATE) && Files.isDirectory(changed)) {
+                registerAll(changed);
+                continue;
+            }
+            pendingChanges.put(changed, System.nanoTime() + debounceNanos);
+        }
+
+        if (!key.reset())
+            directories.remove(key);
+    }
+
+    private void reloadDueChanges() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Long>> iterator = pendingChanges.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> pendingChange = iterator.next();
+            if (pendingChange.getValue() - now > 0)
+                continue;
+
+            iterator.remove();
+            for (Config config : configManager.getConfigs().values()) {
+                if (!config.getPath().toAbsolutePath().normalize().equals(pendingChange.getKey()))
+                    continue;
+
+                try {
+                    if (config.reloadIfChanged())
+                        logger.info("Reloaded " + config.getName() + " after it was changed on disk");
+                } catch (RuntimeException e) {
+                    logger.log(Level.SEVERE, "Failed to reload " + config.getName(), e);
+                }
+            }
+        }
+    }
+
+    private long nanosUntilNextDue() {
+        long now = System.nanoTime();
+        long next = Long.MAX_VALUE;
+        for (long due : pendingChanges.values()) {
+            next = Math.min(next, due - now);
+        }
+        return Math.max(0, next);
+    }
+
+    private void registerAll(Path directory) {
+        try (Stream<Path> tree = Files.walk(directory)) {
+            tree.filter(Files::isDirectory).forEach(subdirectory -> {
+                try {
+                    WatchKey key = subdirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                    directories.put(key, subdirectory);
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Could not watch " + root.relativize(subdirectory), e);
+                }
+            });
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not watch " + directory, e);
+        }
+    }
+}
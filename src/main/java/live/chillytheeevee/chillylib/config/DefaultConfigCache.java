@@ -0,0 +1,88 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * A cache of the default configurations bundled within a plugin's jar file. The contents of a jar file cannot change
+ * while the server is running, so each bundled resource is parsed at most once and then shared by every reload of
+ * every {@link Config} with the same name. The parsed defaults must therefore not be modified.
+ */
+final class DefaultConfigCache {
+
+    private final Plugin plugin;
+    private final Map<String, Optional<Defaults>> defaults = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new, empty DefaultConfigCache for the given plugin.
+     * @param plugin The plugin whose jar file contains the default configurations.
+     */
+    DefaultConfigCache(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Returns the parsed default configuration bundled under the given name, parsing it on first use.
+     * @param name The name of the resource within the plugin's jar file.
+     * @return The parsed default configuration, or null if the plugin's jar file does not contain the resource.
+     */
+    Defaults get(String name) {
+        return defaults.computeIfAbsent(name, this::load).orElse(null);
+    }
+
+    /**
+     * Returns the parsed default configuration bundled under the given name, parsing the given content of the resource
+     * if it has not been parsed yet. This spares reading the resource from the plugin's jar file again when the caller
+     * has already read it.
+     * @param name The name of the resource within the plugin's jar file.
+     * @param resource The content of the resource, or null if the plugin's jar file does not contain it.
+     * @return The parsed default configuration, or null if the plugin's jar file does not contain the resource.
+     */
+    Defaults get(String name, byte[] resource) {
+        return defaults.computeIfAbsent(name, ignored -> (resource == null)
+                ? Optional.empty() : Optional.of(parse(name, resource))).orElse(null);
+    }
+
+    private Optional<Defaults> load(String name) {
+        InputStream resource = plugin.getResource(name);
+        if (resource == null)
+            return Optional.empty();
+
+        try (InputStream in = resource) {
+            return Optional.of(parse(name, in.readAllBytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + name + " from the plugin jar", e);
+        }
+    }
+
+    /**
+     * Parses the given resource in the {@link ConfigFormat} matching its name. A resource that cannot be parsed is
+     * logged and yields empty defaults.
+     */
+    private Defaults parse(String name, byte[] resource) {
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            ConfigFormat.forFileName(name).load(resource, config);
+        } catch (IOException | InvalidConfigurationException e) {
+            plugin.getLogger().log(Level.SEVERE, "Cannot load " + name + " from the plugin jar", e);
+            config = new YamlConfiguration();
+        }
+        return new Defaults(config);
+    }
+
+    /**
+     * A parsed default configuration.
+     * @param config The parsed default configuration.
+     */
+    record Defaults(YamlConfiguration config) {
+    }
+}
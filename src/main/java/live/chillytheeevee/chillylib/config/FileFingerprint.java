@@ -0,0 +1,146 @@
+package live.chillytheeevee.chillylib.config;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The size, modification time and content hash of a file at a given moment. As long as the size and modification time
+ * of a file have not changed, its content hash can be taken from a previously created FileFingerprint instead of
+ * reading the whole file again.
+ */
+final class FileFingerprint {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final long size;
+    private final FileTime lastModified;
+    private final byte[] hash;
+
+    private FileFingerprint(long size, FileTime lastModified, byte[] hash) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.hash = hash;
+    }
+
+    /**
+     * Creates a FileFingerprint for the file at the given path whose content is known to have the given hash.
+     * @param path The path of the file.
+     * @param contentHash The hash of the content of the file, created by {@link FileFingerprint#hash(byte[])}.
+     * @return A FileFingerprint for the file at the given path.
+     * @throws IOException If the attributes of the file could not be read.
+     */
+    static FileFingerprint of(Path path, byte[] contentHash) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new FileFingerprint(attributes.size(), attributes.lastModifiedTime(), contentHash);
+    }
+
+    /**
+     * Returns the FileFingerprint of the file at the given path as it is right now. If the size and modification time
+     * of the file still match the given cached FileFingerprint, then that FileFingerprint is returned without reading
+     * the file.
+     * @param path The path of the file.
+     * @param cached A previously created FileFingerprint of the same file, or null.
+     * @return The current FileFingerprint of the file, or null if the file does not exist.
+     * @throws IOException If the file could not be read.
+     */
+    static FileFingerprint current(Path path, FileFingerprint cached) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        if ((cached != null) && (cached.size == attributes.size())
+                && cached.lastModified.equals(attributes.lastModifiedTime()))
+            return cached;
+
+        return new FileFingerprint(attributes.size(), attributes.lastModifiedTime(), hash(Files.readAllBytes(path)));
+    }
+
+    /**
+     * Returns the content hash of the given bytes.
+     * @param content The bytes to hash.
+     * @return the content hash of the given bytes.
+     */
+    static byte[] hash(byte[] content) {
+        return newDigest().digest(content);
+    }
+
+    /**
+     * Returns a new MessageDigest that creates the same hashes as {@link FileFingerprint#hash(byte[])}.
+     * @return a new MessageDigest for content hashes.
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not supported by this JVM", e);
+        }
+    }
+
+    /**
+     * Returns whether the file described by this FileFingerprint had the content with the given hash.
+     * @param contentHash A hash created by {@link FileFingerprint#hash(byte[])}.
+     * @return true if the file described by this FileFingerprint had the content with the given hash.
+     */
+    boolean hasContent(byte[] contentHash) {
+        return Arrays.equals(hash, contentHash);
+    }
+
+    /**
+     * Returns whether the file described by this FileFingerprint had the same content as the file described by the
+     * given FileFingerprint.
+     * @param other Another FileFingerprint.
+     * @return true if both FileFingerprints describe the same content.
+     */
+    boolean hasSameContent(FileFingerprint other) {
+        return Arrays.equals(hash, other.hash);
+    }
+
+    /**
+     * Returns whether this FileFingerprint and the given FileFingerprint describe a file with the same size,
+     * modification time and content.
+     * @param other Another FileFingerprint.
+     * @return true if both FileFingerprints are identical.
+     */
+    boolean isIdenticalTo(FileFingerprint other) {
+        return (size == other.size) && lastModified.equals(other.lastModified) && hasSameContent(other);
+    }
+
+    /**
+     * Writes this FileFingerprint to the given output.
+     * @param out The output to write to.
+     * @throws IOException If this FileFingerprint could not be written.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(size);
+        out.writeLong(lastModified.to(TimeUnit.NANOSECONDS));
+        out.writeShort(hash.length);
+        out.write(hash);
+    }
+
+    /**
+     * Reads a FileFingerprint previously written by {@link FileFingerprint#writeTo(DataOutput)}.
+     * @param in The input to read from.
+     * @return The FileFingerprint that was read.
+     * @throws IOException If no FileFingerprint could be read.
+     */
+    static FileFingerprint readFrom(DataInput in) throws IOException {
+        long size = in.readLong();
+        FileTime lastModified = FileTime.from(in.readLong(), TimeUnit.NANOSECONDS);
+        byte[] hash = new byte[in.readUnsignedShort()];
+        in.readFully(hash);
+        return new FileFingerprint(size, lastModified, hash);
+    }
+}
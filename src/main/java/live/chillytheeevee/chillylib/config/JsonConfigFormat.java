@@ -0,0 +1,214 @@
+package live.chillytheeevee.chillylib.config;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JSON {@link ConfigFormat}. Files are read and written through Gson's streaming {@link JsonReader} and
+ * {@link JsonWriter} rather than Gson's own tree of {@code JsonElement}s. Each top-level value is read into a plain
+ * Java value first, so a nested object is collected into a Map of its whole content before it becomes a section.
+ * Saving writes the whole document into memory before it is returned. Sections become JSON objects, and
+ * {@link ConfigurationSerializable} values are stored in their serialized form, just like YAML stores them.
+ */
+final class JsonConfigFormat implements ConfigFormat {
+
+    @Override
+    public void load(byte[] data, YamlConfiguration config) throws IOException, InvalidConfigurationException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(data),
+                StandardCharsets.UTF_8))) {
+            reader.setLenient(true);
+            JsonToken root = reader.peek();
+            if (root == JsonToken.END_DOCUMENT)
+                return;
+            if (root != JsonToken.BEGIN_OBJECT)
+                throw new InvalidConfigurationException("The root of a JSON config file must be an object");
+
+            readSection(reader, config);
+        } catch (IOException | JsonParseException | IllegalStateException | IllegalArgumentException ex) {
+            // Reading from memory cannot fail, so every IOException stems from malformed or truncated content
+            throw new InvalidConfigurationException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public byte[] save(YamlConfiguration config) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            // NaN and infinite doubles are written as is, which only a lenient reader accepts
+            writer.setLenient(true);
+            writeSection(config, writer);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public String toString() {
+        return "JSON";
+    }
+
+    private static void readSection(JsonReader reader, ConfigurationSection section) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                Map<String, Object> map = readObject(reader);
+                if (map.containsKey(ConfigurationSerialization.SERIALIZED_TYPE_KEY))
+                    section.set(key, ConfigurationSerialization.deserializeObject(map));
+                else
+                    section.createSection(key, map);
+            } else {
+                section.set(key, readValue(reader));
+            }
+        }
+        reader.endObject();
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT: {
+                Map<String, Object> map = readObject(reader);
+                if (map.containsKey(ConfigurationSerialization.SERIALIZED_TYPE_KEY))
+                    return ConfigurationSerialization.deserializeObject(map);
+                return map;
+            }
+            case BEGIN_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readValue(reader));
+                }
+                reader.endArray();
+                return list;
+            }
+            case STRING:
+                return parseString(reader.nextString());
+            case NUMBER:
+                return parseNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                throw new IllegalStateException("Unexpected " + reader.peek() + " at " + reader.getPath());
+        }
+    }
+
+    private static Map<String, Object> readObject(JsonReader reader) throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            map.put(reader.nextName(), readValue(reader));
+        }
+        reader.endObject();
+        return map;
+    }
+
+    /**
+     * Parses a JSON string, turning the NaN and infinite doubles written by {@link JsonConfigFormat#save} back into
+     * Doubles. Gson reports these unquoted literals as strings, so a quoted string of the same text is read as a Double
+     * too.
+     */
+    private static Object parseString(String string) {
+        switch (string) {
+            case "NaN":
+                return Double.NaN;
+            case "Infinity":
+                return Double.POSITIVE_INFINITY;
+            case "-Infinity":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                return string;
+        }
+    }
+
+    /**
+     * Parses a JSON number into the type YAML would parse it into: an Integer or Long if it is integral and fits, and a
+     * Double otherwise.
+     */
+    private static Object parseNumber(String number) {
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if ((c == '.') || (c == 'e') || (c == 'E'))
+                return Double.parseDouble(number);
+        }
+
+        long value;
+        try {
+            value = Long.parseLong(number);
+        } catch (NumberFormatException ex) {
+            return Double.parseDouble(number);
+        }
+        return ((value >= Integer.MIN_VALUE) && (value <= Integer.MAX_VALUE)) ? (Object) (int) value : value;
+    }
+
+    private static void writeSection(ConfigurationSection section, JsonWriter writer) throws IOException {
+        writer.beginObject();
+        for (Map.Entry<String, Object> entry : section.getValues(false).entrySet()) {
+            writer.name(entry.getKey());
+            writeValue(entry.getValue(), writer);
+        }
+        writer.endObject();
+    }
+
+    private static void writeValue(Object value, JsonWriter writer) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof ConfigurationSection section) {
+            writeSection(section, writer);
+        } else if (value instanceof String string) {
+            writer.value(string);
+        } else if (value instanceof Character character) {
+            writer.value(character.toString());
+        } else if (value instanceof Boolean bool) {
+            writer.value(bool);
+        } else if (value instanceof Double || value instanceof Float) {
+            writer.value(((Number) value).doubleValue());
+        } else if (value instanceof Number number) {
+            writer.value(number);
+        } else if (value instanceof List<?> list) {
+            writer.beginArray();
+            for (Object element : list) {
+                writeValue(element, writer);
+            }
+            writer.endArray();
+        } else if (value instanceof Map<?, ?> map) {
+            writeMap(map, writer);
+        } else if (value instanceof ConfigurationSerializable serializable) {
+            Map<String, Object> serialized = new LinkedHashMap<>();
+            serialized.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY,
+                    ConfigurationSerialization.getAlias(serializable.getClass()));
+            serialized.putAll(serializable.serialize());
+            writeMap(serialized, writer);
+        } else {
+            throw new IOException("Cannot write value of type " + value.getClass().getName() + " as JSON");
+        }
+    }
+
+    private static void writeMap(Map<?, ?> map, JsonWriter writer) throws IOException {
+        writer.beginObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writer.name(String.valueOf(entry.getKey()));
+            writeValue(entry.getValue(), writer);
+        }
+        writer.endObject();
+    }
+}
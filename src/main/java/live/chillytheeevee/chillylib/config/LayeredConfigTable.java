@@ -0,0 +1,140 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The result of merging every layer of a layered {@link Config} into one configuration. Layers are merged once per
+ * reload and once after each change of the Config, from the lowest to the highest, with every value of a higher layer
+ * replacing the value at the same path of the layers below it. The merged configuration is then flattened into a
+ * table of every path, so looking up a value costs a single hash probe no matter how many layers there are. The table
+ * must not be modified.
+ * <p>
+ * A change is not patched into the table. Instead, the next lookup after one or more changes merges every layer
+ * again, which costs time proportional to the size of all layers combined. Changes made between two lookups share a
+ * single merge, but code that alternates between changing and reading a layered Config pays for a full merge on every
+ * read.
+ */
+final class LayeredConfigTable {
+
+    private final List<ConfigurationSection> layers;
+    private final char separator;
+    private final String propertyPrefix;
+    private final int generation;
+    private final MemoryConfiguration view;
+    private final Map<String, Object> values;
+
+    private LayeredConfigTable(List<ConfigurationSection> layers, char separator, String propertyPrefix,
+                               int generation, MemoryConfiguration view) {
+        this.layers = layers;
+        this.separator = separator;
+        this.propertyPrefix = propertyPrefix;
+        this.generation = generation;
+        this.view = view;
+        this.values = Collections.unmodifiableMap(new HashMap<>(view.getValues(true)));
+    }
+
+    /**
+     * Merges the given layers and the overrides given through system properties into a new table.
+     * @param layers The layers to merge, from the lowest to the highest. Null layers are skipped.
+     * @param separator The path separator of the merged configuration.
+     * @param propertyPrefix The prefix of the system properties that override values, which is stripped to form the
+     * path of the overridden value, or null if no system properties should be read.
+     * @param generation The generation of the {@link Config} the layers were taken from.
+     * @return The merged table.
+     */
+    static LayeredConfigTable merge(List<ConfigurationSection> layers, char separator, String propertyPrefix,
+                                    int generation) {
+        MemoryConfiguration merged = new MemoryConfiguration();
+        merged.options().pathSeparator(separator);
+        for (ConfigurationSection layer : layers) {
+            if (layer != null)
+                apply(merged, layer);
+        }
+
+        if (propertyPrefix != null) {
+            Yaml yaml = new Yaml(new SafeConstructor(new LoaderOptions()));
+            Properties properties = System.getProperties();
+            for (String property : properties.stringPropertyNames()) {
+                if (!property.startsWith(propertyPrefix) || (property.length() == propertyPrefix.length()))
+                    continue;
+
+                String path = property.substring(propertyPrefix.length());
+                merged.set(path, parseScalar(yaml, properties.getProperty(property)));
+            }
+        }
+        return new LayeredConfigTable(layers, separator, propertyPrefix, generation, merged);
+    }
+
+    /**
+     * Merges the same layers as this table again, picking up any changes made to them since.
+     * @param generation The current generation of the {@link Config} the layers were taken from.
+     * @return The merged table.
+     */
+    LayeredConfigTable rebuild(int generation) {
+        return merge(layers, separator, propertyPrefix, generation);
+    }
+
+    /**
+     * Copies every value of the given layer onto the merged configuration. Empty sections are kept so that a layer can
+     * declare a section without any values.
+     */
+    private static void apply(MemoryConfiguration merged, ConfigurationSection layer) {
+        for (Map.Entry<String, Object> entry : layer.getValues(true).entrySet()) {
+            Object value = entry.getValue();
+            if (!(value instanceof ConfigurationSection section))
+                merged.set(entry.getKey(), value);
+            else if (section.getKeys(false).isEmpty() && !merged.isConfigurationSection(entry.getKey()))
+                merged.createSection(entry.getKey());
+        }
+    }
+
+    /**
+     * Parses the value of a system property the same way YAML parses a plain scalar, so that numbers and booleans
+     * override values of the same type. Values YAML cannot parse are kept as Strings.
+     */
+    private static Object parseScalar(Yaml yaml, String value) {
+        try {
+            Object parsed = yaml.load(value);
+            return (parsed != null) ? parsed : value;
+        } catch (YAMLException ex) {
+            return value;
+        }
+    }
+
+    /**
+     * Returns the value at the given path within the merged layers.
+     * @param path The path of the value.
+     * @return the value at the given path, or null if no layer contains it.
+     */
+    Object get(String path) {
+        return values.get(path);
+    }
+
+    /**
+     * Returns the generation of the {@link Config} this table was merged for.
+     * @return the generation of the Config this table was merged for.
+     */
+    int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the merged layers as a configuration, which the typed getters of {@link ConfigurationSection} can be used
+     * on.
+     * @return the merged layers as a configuration.
+     */
+    ConfigurationSection getView() {
+        return view;
+    }
+}
@@ -0,0 +1,436 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.MemorySection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A YamlConfiguration that only parses a top-level section of its file once that section is first accessed. Loading
+ * merely indexes where each top-level key is located within the file and eagerly parses the first key and every key
+ * whose value is not a section, so a large file of which only a few sections are read never builds the tree of the
+ * other sections.
+ * <p>
+ * Loaded sections that have not been changed can be evicted again, either through
+ * {@link LazyYamlConfiguration#evictColdSections()} or automatically once the JVM runs low on memory. An evicted
+ * section is parsed again from the original text on its next access. Saving writes the original text of every section
+ * that is not loaded, so saving does not force the whole file to be parsed either.
+ * <p>
+ * All access through this configuration is synchronized, because accessing a section may load it. Values obtained
+ * from a lazily loaded section should not be modified in place, but changed through
+ * {@link ConfigurationSection#set(String, Object)}, since only changes made that way prevent the section from being
+ * evicted.
+ */
+final class LazyYamlConfiguration extends YamlConfiguration {
+
+    private final Logger logger;
+    private final Map<String, Segment> segments = new HashMap<>();
+    private YamlSectionIndex index;
+    private List<String> loadedHeader;
+    private List<String> loadedFooter;
+    private SoftReference<Object> memoryPressureSensor = new SoftReference<>(new Object());
+
+    private LazyYamlConfiguration(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Loads the given YAML document lazily.
+     * @param contents The YAML document.
+     * @param logger The logger to report sections that cannot be loaded to.
+     * @return The lazily loaded configuration, or null if the document cannot be loaded lazily and must be loaded
+     * through {@link YamlConfiguration#loadFromString(String)} instead.
+     */
+    static LazyYamlConfiguration load(String contents, Logger logger) {
+        LazyYamlConfiguration config = new LazyYamlConfiguration(logger);
+        YamlSectionIndex index = YamlSectionIndex.of(contents, config.options().pathSeparator());
+        if (index == null)
+            return null;
+
+        try {
+            return config.attach(index) ? config : null;
+        } catch (InvalidConfigurationException ex) {
+            // Left for the full parse to report
+            return null;
+        }
+    }
+
+    /**
+     * Eagerly parses every region of the given index that cannot be loaded lazily, and registers all other regions.
+     * @return false if the keys of the parsed regions do not line up with the index.
+     */
+    private boolean attach(YamlSectionIndex index) throws InvalidConfigurationException {
+        List<YamlSectionIndex.Region> regions = index.getRegions();
+        StringBuilder eagerText = new StringBuilder();
+        for (int i = 0; i < regions.size(); i++) {
+            if ((i == 0) || (regions.get(i).key() == null))
+                eagerText.append(index.getText(regions.get(i)));
+        }
+        eagerText.append(index.getFooterText());
+
+        YamlConfiguration eager = new YamlConfiguration();
+        eager.loadFromString(eagerText.toString());
+
+        List<String> eagerKeys = new ArrayList<>(eager.getKeys(false));
+        int nextEagerKey = 0;
+        for (int i = 0; i < regions.size(); i++) {
+            YamlSectionIndex.Region region = regions.get(i);
+            boolean lazy = (i != 0) && (region.key() != null);
+            if (!lazy && (nextEagerKey == eagerKeys.size()))
+                return false;
+
+            Segment segment = new Segment(lazy ? region.key() : eagerKeys.get(nextEagerKey++), region, lazy);
+            if (segments.putIfAbsent(segment.key, segment) != null)
+                return false;
+
+            if (lazy) {
+                TrackedSection placeholder = new TrackedSection(this, segment.key, segment, null);
+                super.set(segment.key, placeholder);
+                segment.section = placeholder;
+            } else {
+                attach(segment, eager);
+            }
+        }
+        if (nextEagerKey != eagerKeys.size())
+            return false;
+
+        options().setHeader(eager.options().getHeader());
+        options().setFooter(eager.options().getFooter());
+        this.loadedHeader = options().getHeader();
+        this.loadedFooter = options().getFooter();
+        this.index = index;
+        return true;
+    }
+
+    /**
+     * Evicts every loaded section that has neither been changed nor accessed since the previous eviction. Evicted
+     * sections are parsed again on their next access.
+     * @return The number of sections evicted.
+     */
+    synchronized int evictColdSections() {
+        int evicted = 0;
+        for (Segment segment : segments.values()) {
+            if (!segment.lazy || !segment.loaded || segment.dirty)
+                continue;
+            if (segment.recentlyUsed) {
+                segment.recentlyUsed = false;
+                continue;
+            }
+
+            TrackedSection placeholder = new TrackedSection(this, segment.key, segment, null);
+            super.set(segment.key, placeholder);
+            segment.section = placeholder;
+            segment.loaded = false;
+            evicted++;
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the original text of the given top-level key, provided that its value has neither been loaded nor
+     * changed since this configuration was loaded.
+     * @param key The top-level key.
+     * @return the original text of the given key, or null if the key is loaded, changed or not part of the file.
+     */
+    synchronized String getUnloadedText(String key) {
+        Segment segment = segments.get(key);
+        if ((segment == null) || segment.loaded || segment.dirty)
+            return null;
+        return index.getText(segment.region);
+    }
+
+    @Override
+    public synchronized Object get(String path, Object def) {
+        ensureLoaded(segmentOf(path));
+        return super.get(path, def);
+    }
+
+    @Override
+    public synchronized void set(String path, Object value) {
+        markDirty(segmentOf(path));
+        super.set(path, value);
+    }
+
+    @Override
+    public synchronized ConfigurationSection createSection(String path) {
+        Segment segment = segmentOf(path);
+        markDirty(segment);
+        if ((segment == null) || !segment.key.equals(path))
+            return super.createSection(path);
+
+        TrackedSection section = new TrackedSection(this, path, segment, null);
+        super.set(path, section);
+        segment.section = section;
+        return section;
+    }
+
+    @Override
+    public synchronized Set<String> getKeys(boolean deep) {
+        if (deep)
+            loadAll();
+        return super.getKeys(deep);
+    }
+
+    @Override
+    public synchronized Map<String, Object> getValues(boolean deep) {
+        loadAll();
+        return super.getValues(deep);
+    }
+
+    @Override
+    public synchronized List<String> getComments(String path) {
+        ensureLoaded(segmentOf(path));
+        return super.getComments(path);
+    }
+
+    @Override
+    public synchronized List<String> getInlineComments(String path) {
+        ensureLoaded(segmentOf(path));
+        return super.getInlineComments(path);
+    }
+
+    @Override
+    public synchronized void setComments(String path, List<String> comments) {
+        markDirty(segmentOf(path));
+        super.setComments(path, comments);
+    }
+
+    @Override
+    public synchronized void setInlineComments(String path, List<String> comments) {
+        markDirty(segmentOf(path));
+        super.setInlineComments(path, comments);
+    }
+
+    @Override
+    public synchronized void loadFromString(String contents) throws InvalidConfigurationException {
+        index = null;
+        segments.clear();
+        super.loadFromString(contents);
+    }
+
+    @Override
+    public synchronized String saveToString() {
+        if ((index == null) || !Objects.equals(options().getHeader(), loadedHeader)
+                || !Objects.equals(options().getFooter(), loadedFooter)) {
+            loadAll();
+            return super.saveToString();
+        }
+
+        StringBuilder out = new StringBuilder();
+        YamlConfiguration batch = null;
+        for (String key : super.getKeys(false)) {
+            Segment segment = segments.get(key);
+            if ((segment != null) && !segment.loaded && !segment.dirty) {
+                if (batch != null) {
+                    out.append(batch.saveToString());
+                    batch = null;
+                }
+                out.append(index.getText(segment.region));
+                continue;
+            }
+
+            if (batch == null) {
+                batch = new YamlConfiguration();
+                batch.options().indent(options().indent()).width(options().width());
+                if (out.length() == 0)
+                    batch.options().setHeader(loadedHeader);
+                else if (out.charAt(out.length() - 1) != '\n')
+                    out.append('\n');
+            }
+            copy(this, key, batch);
+        }
+        if (batch != null)
+            out.append(batch.saveToString());
+        return out.append(index.getFooterText()).toString();
+    }
+
+    /**
+     * Returns the segment of the top-level key of the given path, or null if that key was not loaded from the file.
+     */
+    private Segment segmentOf(String path) {
+        if (segments.isEmpty())
+            return null;
+
+        int separator = path.indexOf(options().pathSeparator());
+        return segments.get((separator < 0) ? path : path.substring(0, separator));
+    }
+
+    private void ensureLoaded(Segment segment) {
+        if (segment == null)
+            return;
+
+        segment.recentlyUsed = true;
+        if (memoryPressureSensor.get() == null) {
+            // Soft references are only cleared once the heap runs low
+            evictColdSections();
+            memoryPressureSensor = new SoftReference<>(new Object());
+        }
+        if (segment.loaded || segment.failed)
+            return;
+
+        // Parsed after a placeholder key, so that the comments of the section are not mistaken for a header
+        String placeholderKey = segment.key.equals("a") ? "b" : "a";
+        YamlConfiguration parsed = new YamlConfiguration();
+        try {
+            parsed.loadFromString(placeholderKey + ": 0\n" + index.getText(segment.region));
+        } catch (InvalidConfigurationException ex) {
+            logger.log(Level.SEVERE, "Cannot load section " + segment.key, ex);
+            segment.failed = true;
+            return;
+        }
+        attach(segment, parsed);
+    }
+
+    private void loadAll() {
+        for (Segment segment : segments.values()) {
+            ensureLoaded(segment);
+        }
+    }
+
+    private void markDirty(Segment segment) {
+        if (segment == null)
+            return;
+
+        ensureLoaded(segment);
+        segment.dirty = true;
+    }
+
+    /**
+     * Marks the given segment as changed through the given, possibly evicted, top-level section. If the segment was
+     * evicted in the meantime, then the section is attached again so that the change is not lost.
+     */
+    private synchronized void markDirty(Segment segment, TrackedSection top) {
+        if (segment.loading)
+            return;
+
+        if ((segment.section != top) && !segment.dirty) {
+            super.set(segment.key, top);
+            segment.section = top;
+            segment.loaded = true;
+        }
+        segment.dirty = true;
+    }
+
+    /**
+     * Replaces the value and comments of the given segment's key with the ones parsed into the given configuration.
+     */
+    private void attach(Segment segment, YamlConfiguration parsed) {
+        segment.loading = true;
+        try {
+            Object value = parsed.get(segment.key);
+            if (value instanceof ConfigurationSection section) {
+                TrackedSection target = new TrackedSection(this, segment.key, segment, null);
+                super.set(segment.key, target);
+                copyValues(section, target);
+                segment.section = target;
+            } else {
+                super.set(segment.key, value);
+                segment.section = null;
+            }
+            super.setComments(segment.key, parsed.getComments(segment.key));
+            super.setInlineComments(segment.key, parsed.getInlineComments(segment.key));
+            segment.loaded = true;
+        } finally {
+            segment.loading = false;
+        }
+    }
+
+    private static void copy(ConfigurationSection from, String key, ConfigurationSection to) {
+        Object value = from.get(key);
+        if (value instanceof ConfigurationSection section) {
+            copyValues(section, to.createSection(key));
+        } else {
+            to.set(key, value);
+        }
+        to.setComments(key, from.getComments(key));
+        to.setInlineComments(key, from.getInlineComments(key));
+    }
+
+    private static void copyValues(ConfigurationSection from, ConfigurationSection to) {
+        for (String key : from.getKeys(false)) {
+            copy(from, key, to);
+        }
+    }
+
+    /**
+     * The state of a top-level key loaded from the file.
+     */
+    private static final class Segment {
+        private final String key;
+        private final YamlSectionIndex.Region region;
+        private final boolean lazy;
+        private TrackedSection section;
+        private boolean loaded;
+        private boolean loading;
+        private boolean failed;
+        private boolean dirty;
+        private boolean recentlyUsed;
+
+        private Segment(String key, YamlSectionIndex.Region region, boolean lazy) {
+            this.key = key;
+            this.region = region;
+            this.lazy = lazy;
+        }
+    }
+
+    /**
+     * A section below a top-level key loaded from the file, which marks that key as changed whenever it is written to.
+     */
+    private static final class TrackedSection extends MemorySection {
+        private final LazyYamlConfiguration owner;
+        private final Segment segment;
+        private final TrackedSection top;
+
+        private TrackedSection(ConfigurationSection parent, String path, Segment segment, TrackedSection top) {
+            super(parent, path);
+            this.owner = (LazyYamlConfiguration) parent.getRoot();
+            this.segment = segment;
+            this.top = (top == null) ? this : top;
+        }
+
+        @Override
+        public void set(String path, Object value) {
+            owner.markDirty(segment, top);
+            super.set(path, value);
+        }
+
+        @Override
+        public ConfigurationSection createSection(String path) {
+            owner.markDirty(segment, top);
+            int separator = path.lastIndexOf(owner.options().pathSeparator());
+            if (separator >= 0) {
+                String parentPath = path.substring(0, separator);
+                ConfigurationSection parent = getConfigurationSection(parentPath);
+                if (parent == null)
+                    parent = createSection(parentPath);
+                return parent.createSection(path.substring(separator + 1));
+            }
+
+            TrackedSection section = new TrackedSection(this, path, segment, top);
+            super.set(path, section);
+            return section;
+        }
+
+        @Override
+        public void setComments(String path, List<String> comments) {
+            owner.markDirty(segment, top);
+            super.setComments(path, comments);
+        }
+
+        @Override
+        public void setInlineComments(String path, List<String> comments) {
+            owner.markDirty(segment, top);
+            super.setInlineComments(path, comments);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package live.chillytheeevee.chillylib.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A prefix trie of configuration section paths, split on the '.' path separator. Matching a key against every section
+ * in the trie costs one step per key segment, no matter how many sections the trie contains.
+ */
+final class SectionTrie {
+
+    /**
+     * How a key relates to the sections within a SectionTrie.
+     */
+    enum Match {
+        /** The key is neither a section within the trie, nor inside or above one. */
+        NONE,
+        /** The key is a parent of a section within the trie. */
+        ANCESTOR,
+        /** The key is a section within the trie, or inside one. */
+        WITHIN
+    }
+
+    private final Node root = new Node();
+    private boolean empty = true;
+
+    /**
+     * Adds the section with the given path to this SectionTrie.
+     * @param path The full path of the section.
+     */
+    void add(String path) {
+        Node node = root;
+        int start = 0;
+        while (true) {
+            int end = path.indexOf('.', start);
+            node = node.children.computeIfAbsent(path.substring(start, end < 0 ? path.length() : end),
+                    segment -> new Node());
+            if (end < 0)
+                break;
+            start = end + 1;
+        }
+        node.section = true;
+        empty = false;
+    }
+
+    /**
+     * Returns whether this SectionTrie contains no sections.
+     * @return true if this SectionTrie contains no sections.
+     */
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Returns the root node of this SectionTrie, which represents the empty path.
+     * @return the root node of this SectionTrie.
+     */
+    Node root() {
+        return root;
+    }
+
+    /**
+     * Returns how the given key relates to the sections within this SectionTrie.
+     * @param key The full path of a key.
+     * @return how the given key relates to the sections within this SectionTrie.
+     */
+    Match match(String key) {
+        if (empty)
+            return Match.NONE;
+
+        Node node = root;
+        int start = 0;
+        while (true) {
+            int end = key.indexOf('.', start);
+            node = node.child(key.substring(start, end < 0 ? key.length() : end));
+            if (node == null)
+                return Match.NONE;
+            if (node.section)
+                return Match.WITHIN;
+            if (end < 0)
+                return Match.ANCESTOR;
+            start = end + 1;
+        }
+    }
+
+    /**
+     * A single key segment within a SectionTrie.
+     */
+    static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean section;
+
+        /**
+         * Returns the child of this Node for the given key segment.
+         * @param segment A single key segment, without any path separators.
+         * @return the child of this Node for the given key segment, or null if there is none.
+         */
+        Node child(String segment) {
+            return children.get(segment);
+        }
+
+        /**
+         * Returns whether the path ending at this Node is a section that was added to the SectionTrie.
+         * @return true if the path ending at this Node is a section within the SectionTrie.
+         */
+        boolean isSection() {
+            return section;
+        }
+    }
+}
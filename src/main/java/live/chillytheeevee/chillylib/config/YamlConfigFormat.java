@@ -0,0 +1,27 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@link ConfigFormat} of YAML files, which defers to the parser and emitter of {@link YamlConfiguration}.
+ */
+final class YamlConfigFormat implements ConfigFormat {
+
+    @Override
+    public void load(byte[] data, YamlConfiguration config) throws InvalidConfigurationException {
+        config.loadFromString(new String(data, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public byte[] save(YamlConfiguration config) {
+        return config.saveToString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "YAML";
+    }
+}
@@ -0,0 +1,248 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * An index of the top-level keys of a YAML document and the region of text each of them occupies. The document is
+ * only tokenized, not composed into a tree, so indexing even a very large file allocates next to nothing.
+ * <p>
+ * The region of a key starts with the comments directly above it and ends right before the comments of the next key,
+ * so every region can be parsed on its own and yields exactly the value and comments a full parse would. The comments
+ * after the last key form a separate footer region.
+ */
+final class YamlSectionIndex {
+
+    private static final Pattern PLAIN_KEY = Pattern.compile("[A-Za-z_][A-Za-z0-9_\\-]*");
+    private static final Set<String> RESERVED_WORDS = Set.of("y", "n", "yes", "no", "on", "off", "true", "false",
+            "null");
+
+    private final String source;
+    private final List<Region> regions;
+    private final int footerStart;
+
+    private YamlSectionIndex(String source, List<Region> regions, int footerStart) {
+        this.source = source;
+        this.regions = regions;
+        this.footerStart = footerStart;
+    }
+
+    /**
+     * Indexes the top-level keys of the given YAML document.
+     * @param source The YAML document.
+     * @param separator The path separator of the configuration the document is loaded into.
+     * @return The index of the document, or null if the document cannot be split into independent regions, e.g.
+     * because it is empty, is not a mapping, uses anchors or aliases or is not valid YAML.
+     */
+    static YamlSectionIndex of(String source, char separator) {
+        if ((source.indexOf('\u0085') >= 0) || (source.indexOf('\u2028') >= 0) || (source.indexOf('\u2029') >= 0))
+            return null;
+
+        LoaderOptions options = new LoaderOptions();
+        options.setCodePointLimit(Integer.MAX_VALUE);
+        Parser parser = new ParserImpl(new StreamReader(source), options);
+
+        List<Entry> entries = new ArrayList<>();
+        try {
+            parser.getEvent(); // StreamStart
+            if (parser.checkEvent(Event.ID.StreamEnd))
+                return null;
+            parser.getEvent(); // DocumentStart
+
+            Event root = parser.getEvent();
+            if (!(root instanceof MappingStartEvent mapping) || mapping.isFlow() || (mapping.getAnchor() != null))
+                return null;
+
+            while (!parser.checkEvent(Event.ID.MappingEnd)) {
+                if (!(parser.getEvent() instanceof ScalarEvent key) || (key.getAnchor() != null)
+                        || (key.getStartMark().getColumn() != 0))
+                    return null;
+
+                Event value = parser.getEvent();
+                int lastLine = lastLineOf(key);
+                if (isAnchorOrAlias(value))
+                    return null;
+                if (value instanceof CollectionStartEvent) {
+                    int depth = 1;
+                    while (depth > 0) {
+                        Event event = parser.getEvent();
+                        if (isAnchorOrAlias(event))
+                            return null;
+                        if (event instanceof CollectionStartEvent)
+                            depth++;
+                        else if (event instanceof CollectionEndEvent)
+                            depth--;
+                        lastLine = Math.max(lastLine, lastLineOf(event));
+                    }
+                } else {
+                    lastLine = Math.max(lastLine, lastLineOf(value));
+                }
+
+                boolean lazy = (value instanceof MappingStartEvent) && isStringKey(key, separator);
+                entries.add(new Entry(lazy ? key.getValue() : null, key.getStartMark().getLine(), lastLine));
+            }
+            parser.getEvent(); // MappingEnd
+
+            if (((DocumentEndEvent) parser.getEvent()).getExplicit() || !parser.checkEvent(Event.ID.StreamEnd))
+                return null;
+        } catch (YAMLException | ClassCastException ex) {
+            // Left for the full parse to report
+            return null;
+        }
+
+        if (entries.isEmpty())
+            return null;
+
+        int[] lineStarts = lineStarts(source);
+        List<Region> regions = new ArrayList<>(entries.size());
+        int start = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            int end = (i + 1 < entries.size())
+                    ? commentsStart(source, lineStarts, entries.get(i + 1).line, entries.get(i).lastLine)
+                    : commentsStart(source, lineStarts, lineStarts.length - 1, entries.get(i).lastLine);
+            regions.add(new Region(entries.get(i).key, lineStarts[start], lineStarts[end]));
+            start = end;
+        }
+        return new YamlSectionIndex(source, Collections.unmodifiableList(regions), lineStarts[start]);
+    }
+
+    /**
+     * Returns the regions of all top-level keys, in document order.
+     * @return the regions of all top-level keys.
+     */
+    List<Region> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Returns the text of the given region.
+     * @param region A region of this index.
+     * @return the text of the given region.
+     */
+    String getText(Region region) {
+        return source.substring(region.start(), region.end());
+    }
+
+    /**
+     * Returns the comments and blank lines that follow the last key of the document.
+     * @return the footer of the document.
+     */
+    String getFooterText() {
+        return source.substring(footerStart);
+    }
+
+    /**
+     * Returns whether the given key is parsed into the String it is written as, which makes it safe to look up before
+     * its value has been parsed.
+     */
+    private static boolean isStringKey(ScalarEvent key, char separator) {
+        String value = key.getValue();
+        if (value.isEmpty() || (value.indexOf(separator) >= 0) || (key.getTag() != null))
+            return false;
+        if (key.getScalarStyle() != DumperOptions.ScalarStyle.PLAIN)
+            return true;
+        return PLAIN_KEY.matcher(value).matches() && !RESERVED_WORDS.contains(value.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns whether the given event defines or refers to an anchor, which ties its value to other regions.
+     */
+    private static boolean isAnchorOrAlias(Event event) {
+        return (event instanceof AliasEvent) || ((event instanceof NodeEvent node) && (node.getAnchor() != null));
+    }
+
+    /**
+     * Returns the last line holding content of the given event, or -1 if the event takes up no space, like the end
+     * of a block collection or an empty value.
+     */
+    private static int lastLineOf(Event event) {
+        Mark start = event.getStartMark();
+        Mark end = event.getEndMark();
+        if (end.getIndex() <= start.getIndex())
+            return -1;
+        return (end.getColumn() == 0) ? end.getLine() - 1 : end.getLine();
+    }
+
+    /**
+     * Returns the first line of the comments and blank lines directly above the given line, without going back past
+     * the given last line of content.
+     */
+    private static int commentsStart(String source, int[] lineStarts, int line, int lastContentLine) {
+        while ((line - 1 > lastContentLine) && isCommentOrBlank(source, lineStarts[line - 1], lineStarts[line]))
+            line--;
+        return line;
+    }
+
+    private static boolean isCommentOrBlank(String source, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '#')
+                return true;
+            if (!Character.isWhitespace(c))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the offset at which each line of the given text starts, followed by the length of the text.
+     */
+    private static int[] lineStarts(String source) {
+        int[] starts = new int[64];
+        int lines = 1;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if ((c == '\n') || ((c == '\r') && ((i + 1 == source.length()) || (source.charAt(i + 1) != '\n')))) {
+                if (lines == starts.length)
+                    starts = Arrays.copyOf(starts, lines * 2);
+                starts[lines++] = i + 1;
+            }
+        }
+        if (starts[lines - 1] != source.length()) {
+            if (lines == starts.length)
+                starts = Arrays.copyOf(starts, lines + 1);
+            starts[lines++] = source.length();
+        }
+        return Arrays.copyOf(starts, lines);
+    }
+
+    /**
+     * A top-level key as reported by the parser.
+     * @param key The key if its value can be loaded lazily, otherwise null.
+     * @param line The line of the key.
+     * @param lastLine The last line holding content of the key's value.
+     */
+    private record Entry(String key, int line, int lastLine) {
+    }
+
+    /**
+     * The region of text occupied by a top-level key.
+     * @param key The key if its value is a section that can be parsed on its own, or null if the region must be
+     * parsed eagerly.
+     * @param start The offset of the first character of the region.
+     * @param end The offset after the last character of the region.
+     */
+    record Region(String key, int start, int end) {
+    }
+}
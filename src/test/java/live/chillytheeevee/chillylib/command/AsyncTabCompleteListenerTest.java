@@ -0,0 +1,117 @@
+package live.chillytheeevee.chillylib.command;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import live.chillytheeevee.chillylib.config.ConfigManager;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncTabCompleteListenerTest {
+
+    private static final String BASE_COMMAND_CONFIG = "base_command.yml";
+
+    @TempDir
+    Path dataFolder;
+
+    ConfigManager configManager;
+    BaseCommand baseCommand;
+    CommandSender sender;
+    AsyncTabCompleteListener listener;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        JavaPlugin plugin = mock(JavaPlugin.class);
+        when(plugin.getName()).thenReturn("Test");
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(plugin.getLogger()).thenReturn(Logger.getLogger(AsyncTabCompleteListenerTest.class.getName()));
+        Files.write(dataFolder.resolve(BASE_COMMAND_CONFIG),
+                "async_suggestion_timeout: 20\n".getBytes(StandardCharsets.UTF_8));
+
+        configManager = new ConfigManager(plugin);
+        baseCommand = mock(BaseCommand.class);
+        sender = mock(CommandSender.class);
+        listener = new AsyncTabCompleteListener(plugin, baseCommand, List.of("test"),
+                configManager.getConfig(BASE_COMMAND_CONFIG));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        configManager.shutdown();
+    }
+
+    @DisplayName("AsyncTabCompleteListener.onAsyncTabComplete(): Suggestions that are ready in time handle the event")
+    @Test
+    void whenAsyncTabComplete_ifSuggestionsAreReady_thenTheEventIsHandled() {
+        when(baseCommand.completeAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(List.of("a")));
+        AsyncTabCompleteEvent event = event(true, "/test sub a");
+
+        listener.onAsyncTabComplete(event);
+
+        verify(event).setCompletions(List.of("a"));
+        verify(event).setHandled(true);
+    }
+
+    @DisplayName("AsyncTabCompleteListener.onAsyncTabComplete(): Suggestions that time out leave the event unhandled")
+    @Test
+    void whenAsyncTabComplete_ifSuggestionsTimeOut_thenTheEventIsLeftUnhandled() {
+        CompletableFuture<List<String>> completions = new CompletableFuture<>();
+        when(baseCommand.completeAsync(any(), any())).thenReturn(completions);
+        AsyncTabCompleteEvent event = event(true, "/test:test sub a");
+
+        listener.onAsyncTabComplete(event);
+
+        assertTrue(completions.isCancelled());
+        verify(event, never()).setCompletions(anyList());
+        verify(event, never()).setHandled(anyBoolean());
+    }
+
+    @DisplayName("AsyncTabCompleteListener.onAsyncTabComplete(): Events fired on the main thread are left to it")
+    @Test
+    void whenAsyncTabComplete_ifEventIsSynchronous_thenNothingIsCompleted() {
+        AsyncTabCompleteEvent event = event(false, "/test sub a");
+
+        listener.onAsyncTabComplete(event);
+
+        verify(baseCommand, never()).completeAsync(any(), any());
+        verify(event, never()).setHandled(anyBoolean());
+    }
+
+    @DisplayName("AsyncTabCompleteListener.onAsyncTabComplete(): Other commands are ignored")
+    @Test
+    void whenAsyncTabComplete_ifCommandIsNotTheBaseCommand_thenNothingIsCompleted() {
+        listener.onAsyncTabComplete(event(true, "/other sub a"));
+        listener.onAsyncTabComplete(event(true, "/test"));
+
+        verify(baseCommand, never()).completeAsync(any(), any());
+    }
+
+    private AsyncTabCompleteEvent event(boolean asynchronous, String buffer) {
+        AsyncTabCompleteEvent event = mock(AsyncTabCompleteEvent.class);
+        when(event.isAsynchronous()).thenReturn(asynchronous);
+        when(event.isCommand()).thenReturn(true);
+        when(event.getBuffer()).thenReturn(buffer);
+        when(event.getSender()).thenReturn(sender);
+        return event;
+    }
+}
@@ -0,0 +1,116 @@
+package live.chillytheeevee.chillylib.command.argument;
+
+import live.chillytheeevee.chillylib.command.subcommand.Completions;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ArgumentTreeTest {
+
+    enum Mode { SURVIVAL, CREATIVE }
+
+    CommandSender sender;
+    List<Object> executed;
+    ArgumentTree tree;
+
+    @BeforeEach
+    public void setup() {
+        sender = mock(CommandSender.class);
+        executed = new ArrayList<>();
+        tree = ArgumentTree.builder()
+                .then(ArgumentTree.literal("mode")
+                        .then(ArgumentTree.argument("mode", ArgumentTypes.enumeration(Mode.class))
+                                .executes(context -> executed.add(context.get("mode")))))
+                .then(ArgumentTree.literal("wait")
+                        .executes(context -> executed.add(Duration.ZERO))
+                        .then(ArgumentTree.argument("duration", ArgumentTypes.duration())
+                                .executes(context -> executed.add(context.get("duration")))))
+                .then(ArgumentTree.literal("say")
+                        .then(ArgumentTree.argument("message", ArgumentTypes.quotedString())
+                                .then(ArgumentTree.argument("times", ArgumentTypes.integer(1, 10))
+                                        .executes(context -> executed.add(
+                                                context.<String>get("message").repeat(context.get("times")))))))
+                .build();
+    }
+
+    @Test
+    public void dispatchesLiteralsIgnoringCase() {
+        assertTrue(tree.execute(sender, new String[]{"test", "MODE", "creative"}));
+        assertEquals(List.of(Mode.CREATIVE), executed);
+    }
+
+    @Test
+    public void executesNodesWithOptionalChildren() {
+        assertTrue(tree.execute(sender, new String[]{"test", "wait"}));
+        assertTrue(tree.execute(sender, new String[]{"test", "wait", "1h30m"}));
+        assertEquals(List.of(Duration.ZERO, Duration.ofMinutes(90)), executed);
+    }
+
+    @Test
+    public void joinsQuotedArguments() {
+        assertTrue(tree.execute(sender, new String[]{"test", "say", "\"a", "b\"", "2"}));
+        assertTrue(tree.execute(sender, new String[]{"test", "say", "\"c\"", "1"}));
+        assertEquals(List.of("a ba b", "c"), executed);
+    }
+
+    @Test
+    public void reportsInvalidArgumentsWithoutExecuting() {
+        assertTrue(tree.execute(sender, new String[]{"test", "say", "hi", "11"}));
+        assertTrue(tree.execute(sender, new String[]{"test", "wait", "5x"}));
+        assertTrue(executed.isEmpty());
+        verify(sender, times(2)).sendMessage(anyString());
+    }
+
+    @Test
+    public void returnsFalseForIncompleteOrUnknownArguments() {
+        assertFalse(tree.execute(sender, new String[]{"test"}));
+        assertFalse(tree.execute(sender, new String[]{"test", "mode"}));
+        assertFalse(tree.execute(sender, new String[]{"test", "unknown"}));
+        assertFalse(tree.execute(sender, new String[]{"test", "mode", "survival", "extra"}));
+        verify(sender, never()).sendMessage(anyString());
+    }
+
+    @Test
+    public void completesLiteralsAndTypedArguments() {
+        assertEquals(List.of("mode"), complete("test", "m"));
+        assertEquals(List.of("creative"), complete("test", "mode", "C"));
+        assertEquals(List.of("5s", "5m", "5h", "5d", "5w"), complete("test", "wait", "5"));
+        assertEquals(List.of(), complete("test", "unknown", ""));
+    }
+
+    @Test
+    public void generatesUsage() {
+        assertEquals("mode <mode> | wait [<duration>] | say <message> <times>", tree.getUsage());
+    }
+
+    @Test
+    public void parsesNumbersAndDurationsWithoutExceptions() {
+        assertEquals(-42, ArgumentTypes.parseLong("-42", 0, 3));
+        assertEquals(Long.MIN_VALUE, ArgumentTypes.parseLong("4a", 0, 2));
+        assertEquals(Long.MIN_VALUE, ArgumentTypes.parseLong("99999999999999999999", 0, 20));
+        assertEquals(Duration.ofDays(8), ArgumentTypes.parseDuration("1w1d"));
+        assertNull(ArgumentTypes.parseDuration("10"));
+        assertNull(ArgumentTypes.parseDuration("m"));
+        assertNull(ArgumentTypes.parseDuration(""));
+    }
+
+    private List<String> complete(String... args) {
+        Completions completions = new Completions(args[args.length - 1], 10);
+        tree.complete(sender, args, completions);
+        return completions.getSuggestions();
+    }
+}
@@ -0,0 +1,104 @@
+package live.chillytheeevee.chillylib.command.subcommand;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PermissionCacheTest {
+
+    Player player;
+    PermissionCache cache;
+
+    @BeforeEach
+    public void setup() {
+        player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(player.hasPermission("myplugin.help")).thenReturn(true);
+        cache = new PermissionCache(Duration.ofMinutes(1));
+    }
+
+    @DisplayName("PermissionCache.test(): Requirements compiled again by a reload share the cached result")
+    @Test
+    void whenTest_ifRequirementIsCompiledAgain_thenTheCachedResultIsReused() {
+        assertTrue(cache.test(player, compile("myplugin.help")));
+        assertTrue(cache.test(player, compile("myplugin.help")));
+
+        verify(player, times(1)).hasPermission("myplugin.help");
+    }
+
+    @DisplayName("PermissionCache.test(): Requirements naming other permissions are checked on their own")
+    @Test
+    void whenTest_ifRequirementNamesOtherPermissions_thenItIsCheckedAgain() {
+        assertTrue(cache.test(player, compile("myplugin.help")));
+        assertFalse(cache.test(player, compile(List.of("myplugin.help", "myplugin.admin"), "all")));
+
+        verify(player, times(2)).hasPermission("myplugin.help");
+        verify(player, times(1)).hasPermission("myplugin.admin");
+    }
+
+    @DisplayName("PermissionCache.test(): Expired and invalidated results are checked again")
+    @Test
+    void whenTest_ifResultExpiredOrWasInvalidated_thenThePermissionIsCheckedAgain() {
+        PermissionCache expiring = new PermissionCache(Duration.ZERO);
+        expiring.test(player, compile("myplugin.help"));
+        expiring.test(player, compile("myplugin.help"));
+        verify(player, times(2)).hasPermission("myplugin.help");
+
+        cache.test(player, compile("myplugin.help"));
+        cache.invalidate(player.getUniqueId());
+        cache.test(player, compile("myplugin.help"));
+        verify(player, times(4)).hasPermission("myplugin.help");
+    }
+
+    @DisplayName("PermissionCache.test(): Senders other than players are never cached")
+    @Test
+    void whenTest_ifSenderIsNoPlayer_thenThePermissionIsAlwaysChecked() {
+        CommandSender console = mock(CommandSender.class);
+        PermissionRequirement requirement = compile("myplugin.help");
+
+        cache.test(console, requirement);
+        cache.test(console, requirement);
+
+        verify(console, times(2)).hasPermission("myplugin.help");
+    }
+
+    @DisplayName("PermissionRequirement.equals(): Requirements are equal if they name the same any and all permissions")
+    @Test
+    void whenEquals_ifRequirementsNameTheSamePermissions_thenTheyAreEqual() {
+        PermissionRequirement single = compile("myplugin.help");
+        PermissionRequirement any = compile(List.of("myplugin.help"), "any");
+
+        assertEquals(single, any);
+        assertEquals(single.hashCode(), any.hashCode());
+        assertNotEquals(any, compile(List.of("myplugin.help"), "all"));
+        assertNotEquals(any, compile(List.of("myplugin.help", "myplugin.admin"), "any"));
+    }
+
+    private static PermissionRequirement compile(String permission) {
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("permission", permission);
+        return PermissionRequirement.compile(config, "permission");
+    }
+
+    private static PermissionRequirement compile(List<String> permissions, String key) {
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("permission." + key, permissions);
+        return PermissionRequirement.compile(config, "permission");
+    }
+}
@@ -0,0 +1,142 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.MemoryConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigBinderTest {
+
+    enum Mode { SURVIVAL, CREATIVE }
+
+    record Server(int port, @ConfigPath("host-name") String host) {
+    }
+
+    record Settings(String name, int maxPlayers, long uptime, double ratio, boolean enabled, Mode mode,
+                    List<String> tags, Set<Integer> ports, Map<String, Integer> limits, Server server) {
+    }
+
+    record Numbers(int integer, short small, byte tiny, long big) {
+    }
+
+    static class Rewards {
+        int coins;
+        String title;
+        transient String ignored = "kept";
+        List<Server> servers;
+    }
+
+    MemoryConfiguration config;
+
+    @BeforeEach
+    public void setup() {
+        config = new MemoryConfiguration();
+    }
+
+    @DisplayName("ConfigBinder.bind(): Every supported type is converted from its config value")
+    @Test
+    void whenBind_ifValuesMatchTheirTypes_thenEveryValueIsConverted() {
+        config.set("name", "Lobby");
+        config.set("max_players", "64");
+        config.set("uptime", 3_000_000_000L);
+        config.set("ratio", 1);
+        config.set("enabled", "TRUE");
+        config.set("mode", "creative");
+        config.set("tags", List.of("a", "b"));
+        config.set("ports", List.of(1, 1, 2));
+        config.set("limits.chat", 5);
+        config.set("server.port", 25565);
+        config.set("server.host-name", "localhost");
+
+        Settings settings = ConfigBinder.bind(config, Settings.class);
+
+        assertEquals(new Settings("Lobby", 64, 3_000_000_000L, 1.0, true, Mode.CREATIVE, List.of("a", "b"),
+                Set.of(1, 2), Map.of("chat", 5), new Server(25565, "localhost")), settings);
+    }
+
+    @DisplayName("ConfigBinder.bind(): Missing values bind as null or empty collections, except for primitives")
+    @Test
+    void whenBind_ifValuesAreMissing_thenOnlyPrimitivesFail() {
+        config.set("max_players", 1);
+        config.set("uptime", 1);
+        config.set("ratio", 1);
+        config.set("enabled", false);
+
+        Settings settings = ConfigBinder.bind(config, Settings.class);
+        assertNull(settings.name());
+        assertNull(settings.server());
+        assertEquals(List.of(), settings.tags());
+        assertEquals(Map.of(), settings.limits());
+
+        ConfigBindingException ex = assertThrows(ConfigBindingException.class,
+                () -> ConfigBinder.bind(new MemoryConfiguration(), Settings.class));
+        assertEquals("missing value", ex.getErrors().get("max_players"));
+    }
+
+    @DisplayName("ConfigBinder.bind(): Plain objects and lists of nested records are bound")
+    @Test
+    void whenBind_ifTypeIsPlainObject_thenFieldsAreSet() {
+        config.set("coins", 10);
+        config.set("servers", List.of(Map.of("port", 1, "host-name", "a"), Map.of("port", 2)));
+
+        Rewards rewards = ConfigBinder.bind(config, Rewards.class);
+
+        assertEquals(10, rewards.coins);
+        assertNull(rewards.title);
+        assertEquals("kept", rewards.ignored);
+        assertEquals(List.of(new Server(1, "a"), new Server(2, null)), rewards.servers);
+    }
+
+    @DisplayName("ConfigBinder.bind(): Whole numbers stored as doubles are accepted")
+    @Test
+    void whenBind_ifDoubleIsWhole_thenItIsBound() {
+        config.set("integer", 2.0);
+        config.set("small", -3);
+        config.set("tiny", "127");
+        config.set("big", 1e15);
+
+        assertEquals(new Numbers(2, (short) -3, (byte) 127, 1_000_000_000_000_000L),
+                ConfigBinder.bind(config, Numbers.class));
+    }
+
+    @DisplayName("ConfigBinder.bind(): Fractional and out of range whole numbers are rejected instead of truncated")
+    @Test
+    void whenBind_ifNumberIsFractionalOrOutOfRange_thenEveryPathIsReported() {
+        config.set("integer", 1.5);
+        config.set("small", 40_000);
+        config.set("tiny", 200);
+        config.set("big", "9223372036854775808");
+
+        ConfigBindingException ex = assertThrows(ConfigBindingException.class,
+                () -> ConfigBinder.bind(config, Numbers.class));
+
+        assertEquals(List.of("integer", "small", "tiny", "big"), List.copyOf(ex.getErrors().keySet()));
+        assertEquals("expected a whole number but found '1.5'", ex.getErrors().get("integer"));
+        assertEquals("expected a whole number from -128 to 127 but found '200'", ex.getErrors().get("tiny"));
+    }
+
+    @DisplayName("ConfigBinder.bind(): Values wrapping around an int are rejected with the full key path")
+    @Test
+    void whenBind_ifNestedValueOverflows_thenFullPathIsReported() {
+        config.set("max_players", 3_000_000_000L);
+        config.set("uptime", 1);
+        config.set("ratio", 1);
+        config.set("enabled", true);
+        config.set("server.port", "eighty");
+
+        ConfigBindingException ex = assertThrows(ConfigBindingException.class,
+                () -> ConfigBinder.bind(config, Settings.class));
+
+        assertEquals(Set.of("max_players", "server.port"), ex.getErrors().keySet());
+        assertTrue(ex.getMessage().contains("server.port: expected a whole number"), ex.getMessage());
+    }
+}
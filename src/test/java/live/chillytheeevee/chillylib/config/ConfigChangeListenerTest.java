@@ -0,0 +1,145 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConfigChangeListenerTest {
+
+    private static final String CONFIG_NAME = "config.yml";
+
+    @TempDir
+    Path dataFolder;
+
+    ConfigManager configManager;
+    List<List<String>> notifications;
+
+    @BeforeEach
+    public void setup() {
+        JavaPlugin plugin = mock(JavaPlugin.class);
+        Logger logger = Logger.getLogger(ConfigChangeListenerTest.class.getName());
+        logger.setLevel(Level.OFF);
+        when(plugin.getName()).thenReturn("ConfigChangeListenerTest");
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(plugin.getLogger()).thenReturn(logger);
+
+        configManager = new ConfigManager(plugin);
+        notifications = new ArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        configManager.shutdown();
+    }
+
+    @DisplayName("Config.reload(): Listeners receive exactly the added, removed and changed paths")
+    @Test
+    void whenReload_ifValuesChanged_thenExactlyTheChangedPathsAreReported() throws IOException {
+        Config config = load("a: 1\nb:\n  c: 2\n  d: 3\nremoved: x\n");
+        config.addChangeListener(this::record);
+
+        write("a: 5\nb:\n  c: 2\n  d: 4\nadded: y\n");
+        config.reload();
+
+        assertEquals(List.of(List.of("a", "b.d", "added", "removed")), notifications);
+    }
+
+    @DisplayName("Config.reload(): A section replaced by a value reports every path within the section and the value")
+    @Test
+    void whenReload_ifSectionIsReplacedByValue_thenPathsOfBothAreReported() throws IOException {
+        Config config = load("b:\n  c: 2\n  d: 3\n");
+        config.addChangeListener(this::record);
+
+        write("b: 1\n");
+        config.reload();
+
+        assertEquals(List.of(List.of("b.c", "b.d", "b")), notifications);
+    }
+
+    @DisplayName("Config.reload(): Listeners are not notified when nothing changed")
+    @Test
+    void whenReload_ifNothingChanged_thenListenersAreNotNotified() throws IOException {
+        Config config = load("a: 1\nb:\n  c: 2\n");
+        config.addChangeListener(this::record);
+
+        write("# Only a comment changed\na: 1\nb:\n  c: 2\n");
+        config.reload();
+
+        assertTrue(notifications.isEmpty(), notifications.toString());
+    }
+
+    @DisplayName("Config.addChangeListener(path): Listeners of a path only receive the changes at or below that path")
+    @Test
+    void whenReload_ifListenerWatchesPath_thenOnlyPathsBelowItAreReported() throws IOException {
+        Config config = load("a: 1\nb:\n  c: 2\n  d: 3\n");
+        config.addChangeListener("b", this::record);
+        config.addChangeListener("unrelated", this::record);
+
+        write("a: 2\nb:\n  c: 2\n  d: 4\n");
+        config.reload();
+
+        assertEquals(List.of(List.of("b.d")), notifications);
+    }
+
+    @DisplayName("Config.reload(): A failing listener neither stops other listeners nor the reload")
+    @Test
+    void whenReload_ifListenerThrows_thenOtherListenersAreStillNotified() throws IOException {
+        Config config = load("a: 1\n");
+        config.addChangeListener((changed, paths) -> {
+            throw new IllegalStateException("Listener failure");
+        });
+        config.addChangeListener(this::record);
+
+        write("a: 2\n");
+        config.reload();
+
+        assertEquals(List.of(List.of("a")), notifications);
+        assertEquals(2, config.get().getInt("a"));
+    }
+
+    @DisplayName("Config.reload(): Lazily loaded configs report the same paths as eagerly loaded ones")
+    @Test
+    void whenReload_ifLazilyLoaded_thenChangedPathsAreReported() throws IOException {
+        Config config = configManager.getConfig(CONFIG_NAME).setLazyLoadingEnabled(true);
+        write("version: 1\nfirst:\n  a: 1\nsecond:\n  b: 2\n");
+        config.reload();
+        config.addChangeListener(this::record);
+
+        write("version: 1\nfirst:\n  a: 1\nsecond:\n  b: 3\n  c: 4\n");
+        config.reload();
+
+        assertEquals(List.of(List.of("second.b", "second.c")), notifications);
+    }
+
+    private void record(Config config, Set<String> changedPaths) {
+        notifications.add(new ArrayList<>(changedPaths));
+    }
+
+    private Config load(String contents) throws IOException {
+        write(contents);
+        Config config = configManager.getConfig(CONFIG_NAME);
+        config.get();
+        return config;
+    }
+
+    private void write(String contents) throws IOException {
+        AtomicFileWriter.write(dataFolder.resolve(CONFIG_NAME), contents.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,270 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigFormatTest {
+
+    private static final List<ConfigFormat> FORMATS = List.of(ConfigFormat.JSON, ConfigFormat.BINARY);
+
+    public record Point(int x, int y) implements ConfigurationSerializable {
+
+        @Override
+        public Map<String, Object> serialize() {
+            Map<String, Object> serialized = new LinkedHashMap<>();
+            serialized.put("x", x);
+            serialized.put("y", y);
+            return serialized;
+        }
+
+        public static Point deserialize(Map<String, Object> serialized) {
+            return new Point((Integer) serialized.get("x"), (Integer) serialized.get("y"));
+        }
+    }
+
+    @BeforeAll
+    public static void registerSerializables() {
+        ConfigurationSerialization.registerClass(Point.class);
+    }
+
+    @DisplayName("ConfigFormat.load(): Sections, lists and maps within lists survive a round trip")
+    @Test
+    void whenRoundTrip_ifConfigHasSectionsAndLists_thenEveryPathAndValueIsKept() throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.loadFromString("""
+                name: Lobby
+                enabled: true
+                spawn:
+                  world: world
+                  coords:
+                    x: 1
+                    y: 64
+                empty: {}
+                tags: [a, b]
+                matrix: [[1, 2], [3]]
+                rewards:
+                - item: diamond
+                  amount: 2
+                - plain
+                """);
+
+        for (ConfigFormat format : FORMATS) {
+            YamlConfiguration loaded = roundTrip(format, config);
+
+            assertEquals(List.copyOf(config.getKeys(true)), List.copyOf(loaded.getKeys(true)), format.toString());
+            assertEquals(leaves(config), leaves(loaded), format.toString());
+            assertTrue(loaded.isConfigurationSection("empty"), format.toString());
+        }
+    }
+
+    @DisplayName("ConfigFormat.load(): ConfigurationSerializable values are stored serialized and deserialized again")
+    @Test
+    void whenRoundTrip_ifConfigHoldsSerializables_thenTheyAreDeserializedAgain() throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("spawn.point", new Point(1, 2));
+        config.set("points", List.of(new Point(3, 4), new Point(5, 6)));
+
+        for (ConfigFormat format : FORMATS) {
+            YamlConfiguration loaded = roundTrip(format, config);
+
+            assertEquals(new Point(1, 2), loaded.get("spawn.point"), format.toString());
+            assertEquals(List.of(new Point(3, 4), new Point(5, 6)), loaded.get("points"), format.toString());
+        }
+    }
+
+    @DisplayName("ConfigFormat.load(): Numbers come back as Integer, Long or Double just like YAML parses them")
+    @Test
+    void whenRoundTrip_ifConfigHoldsNumbers_thenTheirTypesAreKept() throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("int", -7);
+        config.set("long", 3_000_000_000L);
+        config.set("whole_double", 2.0);
+        config.set("double", 1.5);
+        config.set("nan", Double.NaN);
+        config.set("infinity", Double.NEGATIVE_INFINITY);
+        config.set("list", List.of(1, Long.MAX_VALUE, 0.25));
+
+        for (ConfigFormat format : FORMATS) {
+            YamlConfiguration loaded = roundTrip(format, config);
+
+            assertEquals(-7, loaded.get("int"), format.toString());
+            assertEquals(3_000_000_000L, loaded.get("long"), format.toString());
+            assertEquals(2.0, loaded.get("whole_double"), format.toString());
+            assertEquals(1.5, loaded.get("double"), format.toString());
+            assertEquals(Double.NaN, loaded.get("nan"), format.toString());
+            assertEquals(Double.NEGATIVE_INFINITY, loaded.get("infinity"), format.toString());
+            assertEquals(List.of(1, Long.MAX_VALUE, 0.25), loaded.get("list"), format.toString());
+        }
+    }
+
+    @DisplayName("JsonConfigFormat.load(): Numbers written by hand are parsed into the narrowest type that fits")
+    @Test
+    void whenLoadJson_ifNumbersAreWrittenByHand_thenTheNarrowestTypeIsUsed() throws Exception {
+        YamlConfiguration loaded = load(ConfigFormat.JSON, """
+                {"int": 2147483647, "long": -2147483649, "exponent": 1e3, "huge": 123456789012345678901234567890,
+                 "fraction": -0.5, "text": "12"}
+                """);
+
+        assertEquals(Integer.MAX_VALUE, loaded.get("int"));
+        assertEquals(-2_147_483_649L, loaded.get("long"));
+        assertEquals(1000.0, loaded.get("exponent"));
+        assertInstanceOf(Double.class, loaded.get("huge"));
+        assertEquals(-0.5, loaded.get("fraction"));
+        assertEquals("12", loaded.get("text"));
+    }
+
+    @DisplayName("BinaryConfigFormat.load(): Comments, header and footer survive a round trip")
+    @Test
+    void whenRoundTripBinary_ifConfigHasComments_thenTheyAreKept() throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.loadFromString("""
+                # Header
+
+                # Above a
+                a: 1 # Next to a
+                b:
+                  # Above c
+                  c: 2
+
+                # Footer
+                """);
+
+        YamlConfiguration loaded = roundTrip(ConfigFormat.BINARY, config);
+
+        assertEquals(config.options().getHeader(), loaded.options().getHeader());
+        assertEquals(config.options().getFooter(), loaded.options().getFooter());
+        assertEquals(List.of("Above a"), loaded.getComments("a"));
+        assertEquals(List.of("Next to a"), loaded.getInlineComments("a"));
+        assertEquals(List.of("Above c"), loaded.getComments("b.c"));
+    }
+
+    @DisplayName("ConfigFormat.load(): Empty content loads as an empty config")
+    @Test
+    void whenLoad_ifContentIsEmpty_thenConfigIsEmpty() throws Exception {
+        for (ConfigFormat format : FORMATS) {
+            YamlConfiguration loaded = new YamlConfiguration();
+            format.load(new byte[0], loaded);
+
+            assertTrue(loaded.getKeys(true).isEmpty(), format.toString());
+        }
+    }
+
+    @DisplayName("ConfigFormat.load(): Every truncated version of a saved config is rejected as invalid")
+    @Test
+    void whenLoad_ifContentIsTruncated_thenInvalidConfigurationExceptionIsThrown() throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("name", "Lobby \u00e9");
+        config.set("spawn.coords", List.of(1, 2.5, 3_000_000_000L));
+        config.set("spawn.point", new Point(1, 2));
+
+        for (ConfigFormat format : FORMATS) {
+            byte[] saved = format.save(config);
+            for (int length = 1; length < saved.length; length++) {
+                byte[] truncated = Arrays.copyOf(saved, length);
+                assertThrows(InvalidConfigurationException.class,
+                        () -> format.load(truncated, new YamlConfiguration()), format + " truncated to " + length);
+            }
+        }
+    }
+
+    @DisplayName("JsonConfigFormat.load(): Malformed JSON is rejected as invalid")
+    @Test
+    void whenLoadJson_ifContentIsMalformed_thenInvalidConfigurationExceptionIsThrown() {
+        for (String json : List.of("[1, 2]", "\"text\"", "{\"a\": }", "{\"a\" 1}", "{\"a\": [1, 2}",
+                "{\"a\": {\"==\": \"NoSuchType\"}}")) {
+            assertThrows(InvalidConfigurationException.class, () -> load(ConfigFormat.JSON, json), json);
+        }
+    }
+
+    @DisplayName("BinaryConfigFormat.load(): Malformed binary content is rejected as invalid")
+    @Test
+    void whenLoadBinary_ifContentIsMalformed_thenInvalidConfigurationExceptionIsThrown() throws IOException {
+        byte[] saved = ConfigFormat.BINARY.save(new YamlConfiguration());
+        byte[] wrongMagic = saved.clone();
+        wrongMagic[0]++;
+        byte[] wrongVersion = saved.clone();
+        wrongVersion[7]++;
+
+        for (byte[] binary : List.of("a: 1".getBytes(StandardCharsets.UTF_8), wrongMagic, wrongVersion,
+                binaryWithValue(42, 1), binaryWithValue(2, -1))) {
+            assertThrows(InvalidConfigurationException.class,
+                    () -> ConfigFormat.BINARY.load(binary, new YamlConfiguration()));
+        }
+    }
+
+    @DisplayName("BinaryConfigFormat.load(): Lengths exceeding the content are rejected before allocating")
+    @Test
+    void whenLoadBinary_ifLengthIsOversized_thenInvalidConfigurationExceptionIsThrown() throws IOException {
+        // String, list and map lengths
+        for (int type : List.of(2, 8, 9)) {
+            byte[] binary = binaryWithValue(type, Integer.MAX_VALUE);
+            assertThrows(InvalidConfigurationException.class,
+                    () -> ConfigFormat.BINARY.load(binary, new YamlConfiguration()));
+        }
+    }
+
+    /**
+     * Returns a binary config holding the key {@code a} whose value has the given type byte and starts with the given
+     * int.
+     */
+    private static byte[] binaryWithValue(int type, int content) throws IOException {
+        byte[] empty = ConfigFormat.BINARY.save(new YamlConfiguration());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        // Magic, version, header and footer of an empty config
+        out.write(empty, 0, empty.length - Integer.BYTES);
+        out.writeInt(1);
+        out.writeInt(1);
+        out.writeByte('a');
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(type);
+        out.writeInt(content);
+        return bytes.toByteArray();
+    }
+
+    private static YamlConfiguration roundTrip(ConfigFormat format, YamlConfiguration config)
+            throws IOException, InvalidConfigurationException {
+        YamlConfiguration loaded = new YamlConfiguration();
+        format.load(format.save(config), loaded);
+        return loaded;
+    }
+
+    private static YamlConfiguration load(ConfigFormat format, String content)
+            throws IOException, InvalidConfigurationException {
+        YamlConfiguration loaded = new YamlConfiguration();
+        format.load(content.getBytes(StandardCharsets.UTF_8), loaded);
+        return loaded;
+    }
+
+    /**
+     * Returns every value of the given section by path, with sections replaced by a marker since they are only equal to
+     * themselves.
+     */
+    private static Map<String, Object> leaves(ConfigurationSection section) {
+        Map<String, Object> leaves = new LinkedHashMap<>();
+        section.getValues(true).forEach((path, value) ->
+                leaves.put(path, (value instanceof ConfigurationSection) ? "<section>" : value));
+        return leaves;
+    }
+}
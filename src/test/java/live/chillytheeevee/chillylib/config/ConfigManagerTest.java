@@ -0,0 +1,233 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConfigManagerTest {
+
+    private static final int CONFIG_COUNT = 4;
+    private static final int READER_THREADS = 16;
+    private static final int READS_PER_THREAD = 20_000;
+
+    @TempDir
+    Path dataFolder;
+
+    JavaPlugin plugin;
+    ConfigManager configManager;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        plugin = mock(JavaPlugin.class);
+        when(plugin.getName()).thenReturn("ConfigManagerTest");
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(plugin.getLogger()).thenReturn(Logger.getLogger(ConfigManagerTest.class.getName()));
+
+        for (int i = 0; i < CONFIG_COUNT; i++) {
+            writeVersion(configName(i), 1);
+        }
+        configManager = new ConfigManager(plugin);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        configManager.shutdown();
+    }
+
+    @DisplayName("ConfigManager.getConfig(): Concurrent callers always receive the same Config for the same name")
+    @Test
+    void whenGetConfig_ifCalledConcurrently_thenEveryCallerReceivesTheSameConfig() throws Exception {
+        Map<String, Set<Config>> seen = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(READER_THREADS);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int thread = 0; thread < READER_THREADS; thread++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < CONFIG_COUNT; i++) {
+                        seen.computeIfAbsent(configName(i), name -> ConcurrentHashMap.newKeySet())
+                                .add(configManager.getConfig(configName(i)));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(CONFIG_COUNT, configManager.getConfigs().size());
+        for (int i = 0; i < CONFIG_COUNT; i++) {
+            assertEquals(1, seen.get(configName(i)).size());
+            assertSame(configManager.getConfigs().get(configName(i)), seen.get(configName(i)).iterator().next());
+        }
+    }
+
+    @DisplayName("Config.get(): Readers on many threads only ever see fully loaded versions while configs are reloaded")
+    @Test
+    void whenGet_ifConfigsAreReloadedConcurrently_thenReadersNeverSeeTornState() throws Exception {
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        Set<YamlConfiguration> loadedVersions = Collections.newSetFromMap(Collections.synchronizedMap(
+                new IdentityHashMap<>()));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(READER_THREADS + 1);
+        try {
+            Future<Integer> reloader = executor.submit(() -> {
+                start.await();
+                int version = 1;
+                while (reloading.get()) {
+                    version++;
+                    for (int i = 0; i < CONFIG_COUNT; i++) {
+                        writeVersion(configName(i), version);
+                    }
+                    configManager.reloadConfigsParallel();
+                }
+                return version;
+            });
+
+            List<Future<?>> readers = new ArrayList<>();
+            for (int thread = 0; thread < READER_THREADS; thread++) {
+                int offset = thread;
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < READS_PER_THREAD; i++) {
+                        YamlConfiguration config = configManager.getConfig(configName(i + offset)).get();
+                        loadedVersions.add(config);
+
+                        int version = config.getInt("version");
+                        assertTrue(version >= 1);
+                        assertEquals(version, config.getInt("entries.last"));
+                        Set<String> entries = config.getConfigurationSection("entries").getKeys(false);
+                        assertEquals(entryCount(version) + 1, entries.size());
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+            reloading.set(false);
+            assertTrue(reloader.get(60, TimeUnit.SECONDS) > 1);
+        } finally {
+            reloading.set(false);
+            executor.shutdownNow();
+        }
+
+        assertEquals(CONFIG_COUNT, configManager.getConfigs().size());
+        assertTrue(loadedVersions.size() > CONFIG_COUNT, "No reload was observed by any reader");
+    }
+
+    @DisplayName("ConfigManager.reloadConfigsParallel(): A config that cannot be parsed fails the reload")
+    @Test
+    void whenReloadConfigsParallel_ifConfigCannotBeParsed_thenTheReloadFails() throws IOException {
+        for (int i = 0; i < CONFIG_COUNT; i++) {
+            configManager.getConfig(configName(i));
+        }
+        AtomicFileWriter.write(dataFolder.resolve(configName(1)), "version: [1\n".getBytes(StandardCharsets.UTF_8));
+
+        CompletionException ex = assertThrows(CompletionException.class, configManager::reloadConfigsParallel);
+
+        assertInstanceOf(InvalidConfigurationException.class, ex.getCause());
+        assertSame(ex.getCause(), configManager.getConfig(configName(1)).getLoadError());
+        assertNull(configManager.getConfig(configName(0)).getLoadError());
+
+        writeVersion(configName(1), 2);
+        assertEquals(CONFIG_COUNT, configManager.reloadConfigsParallel().size());
+        assertNull(configManager.getConfig(configName(1)).getLoadError());
+    }
+
+    @DisplayName("Config.reload(): Keys removed from a config holding every default fall back to the defaults")
+    @Test
+    void whenReload_ifConfigHoldsEveryDefault_thenRemovedKeysFallBackToTheDefaults() {
+        byte[] defaults = "version: 7\n".getBytes(StandardCharsets.UTF_8);
+        when(plugin.getResource(configName(0))).thenAnswer(invocation -> new ByteArrayInputStream(defaults));
+
+        YamlConfiguration config = configManager.getConfig(configName(0)).get();
+        assertEquals(1, config.getInt("version"));
+
+        config.set("version", null);
+        assertEquals(7, config.getInt("version"));
+    }
+
+    @DisplayName("Config.reload(): Defaults that cannot be read are reported as the load error instead of thrown")
+    @Test
+    void whenReload_ifDefaultsCannotBeRead_thenTheLoadErrorIsSet() {
+        when(plugin.getResource(configName(0))).thenAnswer(invocation -> new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Broken jar");
+            }
+        });
+
+        Config config = configManager.getConfig(configName(0));
+        assertEquals(1, config.get().getInt("version"));
+        assertInstanceOf(UncheckedIOException.class, config.getLoadError());
+        assertThrows(CompletionException.class, configManager::reloadConfigsParallel);
+    }
+
+    private static String configName(int index) {
+        return "config-" + (index % CONFIG_COUNT) + ".yml";
+    }
+
+    /**
+     * Writes a config whose version can be checked against the number of entries it contains, so that a reader can
+     * tell whether it sees one consistent version of the file.
+     */
+    private void writeVersion(String name, int version) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        builder.append("version: ").append(version).append('\n');
+        builder.append("entries:\n");
+        for (int i = 0; i < entryCount(version); i++) {
+            builder.append("  entry").append(i).append(": ").append(i).append('\n');
+        }
+        builder.append("  last: ").append(version).append('\n');
+
+        AtomicFileWriter.write(dataFolder.resolve(name), builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int entryCount(int version) {
+        return version % 64;
+    }
+}
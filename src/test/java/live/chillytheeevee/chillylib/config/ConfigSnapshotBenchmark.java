@@ -0,0 +1,90 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares loading a 5 MB config from YAML against loading it from its binary snapshot. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ConfigSnapshotBenchmark {
+
+    private static final String CONFIG_NAME = "large.yml";
+    private static final int TARGET_SIZE = 5 * 1024 * 1024;
+    private static final int RUNS = 5;
+
+    @TempDir
+    Path dataFolder;
+
+    @DisplayName("Config.reload(): Loading an unchanged 5 MB config from its snapshot is faster than parsing the YAML")
+    @Test
+    void whenReload_ifSnapshotMatches_thenLoadIsFasterThanYaml() throws IOException {
+        Files.writeString(dataFolder.resolve(CONFIG_NAME), generate());
+
+        JavaPlugin plugin = mock(JavaPlugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(plugin.getLogger()).thenReturn(Logger.getLogger(ConfigSnapshotBenchmark.class.getName()));
+
+        long yaml = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            Config config = new Config(plugin, CONFIG_NAME);
+            long start = System.nanoTime();
+            config.reload();
+            yaml = Math.min(yaml, System.nanoTime() - start);
+        }
+
+        // Stores the snapshot used by every following reload
+        Config expected = new Config(plugin, CONFIG_NAME).setSnapshotCacheEnabled(true).reload();
+        assertTrue(Files.exists(ConfigSnapshotCache.getSnapshotPath(dataFolder, CONFIG_NAME)));
+
+        long snapshot = Long.MAX_VALUE;
+        Config config = null;
+        for (int run = 0; run < RUNS; run++) {
+            config = new Config(plugin, CONFIG_NAME).setSnapshotCacheEnabled(true);
+            long start = System.nanoTime();
+            config.reload();
+            snapshot = Math.min(snapshot, System.nanoTime() - start);
+        }
+
+        System.out.printf("Config.reload(): YAML %.2f ms, snapshot %.2f ms (x%.1f faster)%n",
+                yaml / 1e6, snapshot / 1e6, (double) yaml / snapshot);
+        assertEquals(expected.get().saveToString(), config.get().saveToString());
+        assertTrue(snapshot < yaml, "Loading the snapshot took " + ((double) snapshot / yaml) + "x as long");
+    }
+
+    /**
+     * Generates a commented config of roughly {@link ConfigSnapshotBenchmark#TARGET_SIZE} bytes containing nested
+     * sections, lists and values of every common type.
+     */
+    private static String generate() {
+        StringBuilder builder = new StringBuilder(TARGET_SIZE + 1024);
+        for (int i = 0; builder.length() < TARGET_SIZE; i++) {
+            builder.append("# Section ").append(i).append('\n');
+            builder.append("section").append(i).append(":\n");
+            builder.append("  name: 'Section ").append(i).append("' # Display name\n");
+            builder.append("  enabled: ").append(i % 2 == 0).append('\n');
+            builder.append("  weight: ").append(i * 0.5).append('\n');
+            builder.append("  limits:\n");
+            builder.append("    min: ").append(i).append('\n');
+            builder.append("    max: ").append(i * 1_000_000_000L).append('\n');
+            builder.append("  lines:\n");
+            builder.append("  - '&aFirst line of ").append(i).append("'\n");
+            builder.append("  - '&bSecond line of ").append(i).append("'\n");
+        }
+        return builder.toString();
+    }
+}
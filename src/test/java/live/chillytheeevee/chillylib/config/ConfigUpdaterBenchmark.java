@@ -0,0 +1,94 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures how {@link ConfigUpdater#update(Plugin, String, File, List)} scales with the size of the config. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ConfigUpdaterBenchmark {
+
+    private static final String RESOURCE_NAME = "config.yml";
+    private static final int RUNS = 5;
+
+    @TempDir
+    Path dataFolder;
+
+    @DisplayName("ConfigUpdater.update(): Updating a 10k line config takes roughly linear time compared to 1k lines")
+    @Test
+    void whenUpdate_ifConfigGrowsTenfold_thenTimeGrowsRoughlyTenfold() throws IOException {
+        // Warms up the JIT so that the first measurement is not dominated by interpretation
+        measure(1_000);
+        measure(10_000);
+
+        long small = measure(1_000);
+        long large = measure(10_000);
+
+        System.out.printf("ConfigUpdater.update(): 1k lines %.2f ms, 10k lines %.2f ms (x%.1f)%n",
+                small / 1e6, large / 1e6, (double) large / small);
+        assertTrue(large < small * 15, "Updating 10x the lines took " + ((double) large / small) + "x as long");
+    }
+
+    /**
+     * Returns the fastest of several updates of a generated config with roughly the given number of lines.
+     */
+    private long measure(int lines) throws IOException {
+        int sections = lines / 5;
+        byte[] template = generate(sections, true).getBytes(StandardCharsets.UTF_8);
+        String existing = generate(sections, false);
+
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getResource(RESOURCE_NAME)).thenAnswer(invocation -> new ByteArrayInputStream(template));
+
+        List<String> ignoredSections = new ArrayList<>();
+        for (int i = 0; i < sections; i += 10) {
+            ignoredSections.add("section" + i + ".ignored");
+        }
+
+        File file = dataFolder.resolve("config-" + lines + ".yml").toFile();
+        long fastest = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            Files.writeString(file.toPath(), existing);
+            long start = System.nanoTime();
+            ConfigUpdater.update(plugin, RESOURCE_NAME, file, ignoredSections);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+
+    /**
+     * Generates a config with the given number of sections of five lines each. The template contains one key per
+     * section that the existing config is missing.
+     */
+    private static String generate(int sections, boolean template) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < sections; i++) {
+            builder.append("# Section ").append(i).append('\n');
+            builder.append("section").append(i).append(":\n");
+            builder.append("  name: 'Section ").append(i).append("'\n");
+            builder.append("  ignored:\n");
+            builder.append("    value: ").append(template ? i : -i).append('\n');
+            if (template)
+                builder.append("  added: true\n");
+        }
+        return builder.toString();
+    }
+}
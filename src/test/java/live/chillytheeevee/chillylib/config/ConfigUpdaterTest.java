@@ -0,0 +1,141 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConfigUpdaterTest {
+
+    private static final String RESOURCE_NAME = "config.yml";
+
+    @TempDir
+    Path dataFolder;
+
+    File file;
+
+    @BeforeEach
+    public void setup() {
+        file = dataFolder.resolve(RESOURCE_NAME).toFile();
+    }
+
+    @DisplayName("ConfigUpdater.plan(): Added and removed keys are reported without touching the file")
+    @Test
+    void whenPlan_ifKeysDiffer_thenChangesAreReportedAndFileIsUntouched() throws IOException {
+        String template = "kept: 1\nadded: 2\nsection:\n  nested: true\n";
+        String existing = "kept: 5\nremoved: 3\nsection:\n  nested: false\n";
+        Files.writeString(file.toPath(), existing);
+
+        ConfigChangeSet changes = ConfigUpdater.plan(plugin(template), RESOURCE_NAME, file, List.of());
+
+        assertEquals(Set.of("added"), changes.getAddedKeys());
+        assertEquals(Set.of("removed"), changes.getRemovedKeys());
+        assertFalse(changes.isEmpty());
+        assertEquals(existing, Files.readString(file.toPath()));
+    }
+
+    @DisplayName("ConfigUpdater.update(): Missing keys are added, existing values are kept and obsolete keys removed")
+    @Test
+    void whenUpdate_ifKeysDiffer_thenFileIsMergedWithTemplate() throws IOException {
+        Files.writeString(file.toPath(), "kept: 5\nremoved: 3\n");
+
+        ConfigChangeSet changes = ConfigUpdater.update("# Kept value\nkept: 1\n# Added value\nadded: 2\n", file,
+                List.of());
+
+        YamlConfiguration updated = YamlConfiguration.loadConfiguration(file);
+        assertEquals(5, updated.getInt("kept"));
+        assertEquals(2, updated.getInt("added"));
+        assertFalse(updated.contains("removed"));
+        String content = Files.readString(file.toPath());
+        assertTrue(content.contains("# Kept value"), content);
+        assertTrue(content.contains("# Added value"), content);
+        assertEquals(Set.of("added"), changes.getAddedKeys());
+        assertEquals(Set.of("removed"), changes.getRemovedKeys());
+        assertTrue(changes.getChangedComments().contains("kept"));
+    }
+
+    @DisplayName("ConfigUpdater.update(): A file that is already up to date yields an empty change set and is not rewritten")
+    @Test
+    void whenUpdate_ifFileIsUpToDate_thenNothingChanges() throws IOException {
+        String template = "# Header\nkept: 1\nsection:\n  nested: true\n# Footer\n";
+        Files.writeString(file.toPath(), template);
+        long modified = file.lastModified();
+
+        ConfigChangeSet changes = ConfigUpdater.update(template, file, List.of());
+
+        assertTrue(changes.isEmpty(), changes.toString());
+        assertEquals(template, Files.readString(file.toPath()));
+        assertEquals(modified, file.lastModified());
+    }
+
+    @DisplayName("ConfigUpdater.update(): Changed trailing comments are reported under the empty key")
+    @Test
+    void whenUpdate_ifTrailingCommentsDiffer_thenEmptyKeyIsReported() throws IOException {
+        Files.writeString(file.toPath(), "kept: 1\n# Old footer\n");
+
+        ConfigChangeSet changes = ConfigUpdater.plan(plugin("kept: 1\n# New footer\n"), RESOURCE_NAME, file,
+                List.of());
+
+        assertEquals(Set.of(""), changes.getChangedComments());
+        assertTrue(changes.getAddedKeys().isEmpty());
+        assertTrue(changes.getRemovedKeys().isEmpty());
+    }
+
+    @DisplayName("ConfigUpdater.update(): Ignored sections keep their current content and are not reported")
+    @Test
+    void whenUpdate_ifSectionIsIgnored_thenItsContentIsKept() throws IOException {
+        Files.writeString(file.toPath(), "kept: 1\nignored:\n  custom: 7\n");
+
+        ConfigChangeSet changes = ConfigUpdater.update("kept: 1\nignored:\n  example: 1\nadded: true\n", file,
+                List.of("ignored"));
+
+        YamlConfiguration updated = YamlConfiguration.loadConfiguration(file);
+        assertEquals(7, updated.getInt("ignored.custom"));
+        assertFalse(updated.contains("ignored.example"));
+        assertTrue(updated.getBoolean("added"));
+        assertEquals(Set.of("added"), changes.getAddedKeys());
+        assertTrue(changes.getRemovedKeys().isEmpty());
+    }
+
+    @DisplayName("ConfigUpdater.updateWithFilter(): New keys are only added inside the given sections")
+    @Test
+    void whenUpdateWithFilter_ifKeysAreMissing_thenOnlyKeysInsideTheSectionsAreAdded() throws IOException {
+        Files.writeString(file.toPath(), "first:\n  a: 1\nsecond:\n  b: 2\n");
+        String template = "first:\n  a: 0\n  added: true\nsecond:\n  b: 0\n  skipped: true\n";
+
+        ConfigChangeSet changes = ConfigUpdater.updateWithFilter(plugin(template), RESOURCE_NAME, file,
+                List.of("first"));
+
+        YamlConfiguration updated = YamlConfiguration.loadConfiguration(file);
+        assertEquals(1, updated.getInt("first.a"));
+        assertTrue(updated.getBoolean("first.added"));
+        assertEquals(2, updated.getInt("second.b"));
+        assertFalse(updated.contains("second.skipped"));
+        assertEquals(Set.of("first.added"), changes.getAddedKeys());
+    }
+
+    private static Plugin plugin(String template) {
+        byte[] bytes = template.getBytes(StandardCharsets.UTF_8);
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getName()).thenReturn("ConfigUpdaterTest");
+        when(plugin.getResource(RESOURCE_NAME)).thenAnswer(invocation -> new ByteArrayInputStream(bytes));
+        return plugin;
+    }
+}
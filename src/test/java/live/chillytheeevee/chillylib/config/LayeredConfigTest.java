@@ -0,0 +1,139 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LayeredConfigTest {
+
+    private static final String CONFIG_NAME = "config.yml";
+    private static final String PROPERTY_PREFIX = "layeredconfigtest.";
+
+    @TempDir
+    Path dataFolder;
+
+    ConfigManager configManager;
+
+    @BeforeEach
+    public void setup() {
+        JavaPlugin plugin = mock(JavaPlugin.class);
+        Logger logger = Logger.getLogger(LayeredConfigTest.class.getName());
+        logger.setLevel(Level.OFF);
+        when(plugin.getName()).thenReturn("LayeredConfigTest");
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(plugin.getLogger()).thenReturn(logger);
+
+        configManager = new ConfigManager(plugin);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        configManager.shutdown();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(property -> property.startsWith(PROPERTY_PREFIX))
+                .forEach(System::clearProperty);
+    }
+
+    @DisplayName("Config.get(String): Overlays override the file and each other in the order they were added")
+    @Test
+    void whenGet_ifOverlaysDefineTheSamePath_thenTheLastAddedOverlayWins() throws IOException {
+        write(CONFIG_NAME, "name: base\ndatabase:\n  host: localhost\n  port: 3306\n  user: root\n");
+        write("staging.yml", "name: staging\ndatabase:\n  port: 3307\n  user: stage\n");
+        write("local.yml", "database:\n  user: me\n");
+
+        Config config = configManager.getConfig(CONFIG_NAME)
+                .addOverlay("staging.yml")
+                .addOverlay("missing.yml")
+                .addOverlay("local.yml")
+                .reload();
+
+        assertEquals("staging", config.get("name"));
+        assertEquals("localhost", config.get("database.host"));
+        assertEquals(3307, config.get("database.port"));
+        assertEquals("me", config.get("database.user"));
+        assertEquals(3307, config.intKey("database.port").get());
+        assertEquals(3306, config.get().getInt("database.port"));
+    }
+
+    @DisplayName("Config.get(String): A value of an overlay replaces a whole section of the layers below it")
+    @Test
+    void whenGet_ifOverlayReplacesSectionWithValue_thenPathsWithinTheSectionAreGone() throws IOException {
+        write(CONFIG_NAME, "database:\n  host: localhost\n");
+        write("overlay.yml", "database: disabled\n");
+
+        Config config = configManager.getConfig(CONFIG_NAME).addOverlay("overlay.yml").reload();
+
+        assertEquals("disabled", config.get("database"));
+        assertNull(config.get("database.host"));
+    }
+
+    @DisplayName("Config.get(String): System properties override every overlay and are parsed like YAML scalars")
+    @Test
+    void whenGet_ifSystemPropertiesAreSet_thenTheyOverrideEveryLayer() throws IOException {
+        write(CONFIG_NAME, "database:\n  port: 3306\n  ssl: false\nname: base\n");
+        write("overlay.yml", "database:\n  port: 3307\n");
+        System.setProperty(PROPERTY_PREFIX + "database.port", "3308");
+        System.setProperty(PROPERTY_PREFIX + "database.ssl", "true");
+        System.setProperty(PROPERTY_PREFIX + "name", "from property");
+        System.setProperty(PROPERTY_PREFIX + "added.value", "1.5");
+        System.setProperty(PROPERTY_PREFIX, "ignored");
+
+        Config config = configManager.getConfig(CONFIG_NAME)
+                .addOverlay("overlay.yml")
+                .setSystemPropertyPrefix(PROPERTY_PREFIX)
+                .reload();
+
+        assertEquals(3308, config.get("database.port"));
+        assertEquals(true, config.get("database.ssl"));
+        assertEquals("from property", config.get("name"));
+        assertEquals(1.5, config.get("added.value"));
+        assertEquals(false, config.get().get("database.ssl"));
+    }
+
+    @DisplayName("Config.get(String): Changed values show up in the merged table unless a higher layer overrides them")
+    @Test
+    void whenGet_ifValuesWereChanged_thenTheTableIsMergedAgain() throws IOException {
+        write(CONFIG_NAME, "a: 1\nb: 1\n");
+        write("overlay.yml", "b: 2\n");
+        Config config = configManager.getConfig(CONFIG_NAME).addOverlay("overlay.yml").reload();
+        assertEquals(1, config.get("a"));
+
+        config.set("a", 10).set("b", 10).set("c", 10);
+
+        assertEquals(10, config.get("a"));
+        assertEquals(2, config.get("b"));
+        assertEquals(10, config.get("c"));
+    }
+
+    @DisplayName("Config.reload(): Reloading picks up changes made to overlay files")
+    @Test
+    void whenReload_ifOverlayChanged_thenTheNewOverlayValueIsUsed() throws IOException {
+        write(CONFIG_NAME, "a: 1\n");
+        write("overlay.yml", "a: 2\n");
+        Config config = configManager.getConfig(CONFIG_NAME).addOverlay("overlay.yml").reload();
+        assertEquals(2, config.get("a"));
+
+        write("overlay.yml", "a: 3\n");
+        config.reload();
+
+        assertEquals(3, config.get("a"));
+    }
+
+    private void write(String name, String contents) throws IOException {
+        AtomicFileWriter.write(dataFolder.resolve(name), contents.getBytes(StandardCharsets.UTF_8));
+    }
+}
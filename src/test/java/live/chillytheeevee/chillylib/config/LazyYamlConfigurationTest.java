@@ -0,0 +1,173 @@
+package live.chillytheeevee.chillylib.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyYamlConfigurationTest {
+
+    private static final String SHOPS = """
+            # Comment of shops
+            shops:
+              weapons:
+                price: 10
+                items:
+                  - sword
+                  - bow
+              armor:
+                price: 20.5
+            """;
+    private static final String CONTENTS = """
+            # Header comment
+
+            version: 3
+            general:
+              name: "Server"
+              enabled: true
+            """ + SHOPS + """
+            ranks:
+              default:
+                permissions: []
+              admin:
+                permissions:
+                  - "*"
+            motd: hello
+            """;
+
+    private static final Logger LOGGER = Logger.getLogger(LazyYamlConfigurationTest.class.getName());
+
+    YamlConfiguration eager;
+    LazyYamlConfiguration lazy;
+
+    @BeforeEach
+    public void setup() throws InvalidConfigurationException {
+        eager = new YamlConfiguration();
+        eager.loadFromString(CONTENTS);
+        lazy = LazyYamlConfiguration.load(CONTENTS, LOGGER);
+        assertNotNull(lazy);
+    }
+
+    @DisplayName("LazyYamlConfiguration: Every value and comment equals the one read by an eager YamlConfiguration")
+    @Test
+    void whenGet_ifLoadedLazily_thenValuesEqualEagerlyLoadedValues() {
+        assertNotNull(lazy.getUnloadedText("shops"));
+
+        for (String key : eager.getKeys(true)) {
+            if (eager.isConfigurationSection(key))
+                assertTrue(lazy.isConfigurationSection(key), key);
+            else
+                assertEquals(eager.get(key), lazy.get(key), key);
+            assertEquals(eager.getComments(key), lazy.getComments(key), key);
+        }
+        assertEquals(eager.getKeys(true), lazy.getKeys(true));
+        assertEquals(eager.options().getHeader(), lazy.options().getHeader());
+        assertNull(lazy.getUnloadedText("shops"));
+    }
+
+    @DisplayName("LazyYamlConfiguration: A section is only parsed once it is accessed")
+    @Test
+    void whenGet_ifSectionIsAccessed_thenOnlyThatSectionIsLoaded() {
+        assertEquals(10, lazy.getInt("shops.weapons.price"));
+
+        assertNull(lazy.getUnloadedText("shops"));
+        assertNotNull(lazy.getUnloadedText("ranks"));
+    }
+
+    @DisplayName("LazyYamlConfiguration.evictColdSections(): An evicted section is parsed again on its next access")
+    @Test
+    void whenEvictColdSections_ifSectionIsAccessedAgain_thenItIsReloaded() {
+        assertEquals(List.of("sword", "bow"), lazy.getStringList("shops.weapons.items"));
+
+        // The first pass only clears the recently used mark
+        assertEquals(0, lazy.evictColdSections());
+        assertEquals(1, lazy.evictColdSections());
+        assertNotNull(lazy.getUnloadedText("shops"));
+
+        assertEquals(List.of("sword", "bow"), lazy.getStringList("shops.weapons.items"));
+        assertEquals(20.5, lazy.getDouble("shops.armor.price"));
+        assertNull(lazy.getUnloadedText("shops"));
+    }
+
+    @DisplayName("LazyYamlConfiguration: Cold sections are evicted once the memory pressure sensor is cleared")
+    @Test
+    void whenMemoryRunsLow_ifSectionsAreCold_thenTheyAreEvicted() throws ReflectiveOperationException {
+        lazy.getInt("shops.weapons.price");
+        lazy.evictColdSections();
+
+        // Simulates the garbage collector clearing the soft reference under memory pressure
+        Field sensor = LazyYamlConfiguration.class.getDeclaredField("memoryPressureSensor");
+        sensor.setAccessible(true);
+        sensor.set(lazy, new SoftReference<>(null));
+
+        assertEquals(3, lazy.getInt("version"));
+        assertNotNull(lazy.getUnloadedText("shops"));
+        assertEquals(10, lazy.getInt("shops.weapons.price"));
+    }
+
+    @DisplayName("LazyYamlConfiguration: A section changed through a reference kept across an eviction keeps the change")
+    @Test
+    void whenSet_ifSectionWasEvicted_thenChangeIsKept() {
+        ConfigurationSection weapons = lazy.getConfigurationSection("shops.weapons");
+        assertNotNull(weapons);
+        lazy.evictColdSections();
+        lazy.evictColdSections();
+
+        weapons.set("price", 15);
+
+        assertEquals(15, lazy.getInt("shops.weapons.price"));
+        assertNull(lazy.getUnloadedText("shops"));
+        assertEquals(0, lazy.evictColdSections() + lazy.evictColdSections());
+    }
+
+    @DisplayName("LazyYamlConfiguration.saveToString(): Saving a partly loaded configuration keeps every other section")
+    @Test
+    void whenSaveToString_ifPartlyLoadedAndChanged_thenOtherSectionsAreKept() throws InvalidConfigurationException {
+        lazy.set("ranks.admin.permissions", List.of("*", "admin"));
+        lazy.set("added", true);
+
+        String saved = lazy.saveToString();
+
+        assertTrue(saved.contains(SHOPS), saved);
+        YamlConfiguration reloaded = new YamlConfiguration();
+        reloaded.loadFromString(saved);
+        eager.set("ranks.admin.permissions", List.of("*", "admin"));
+        eager.set("added", true);
+        for (String key : eager.getKeys(true)) {
+            if (!eager.isConfigurationSection(key))
+                assertEquals(eager.get(key), reloaded.get(key), key);
+        }
+        assertEquals(eager.getKeys(true), reloaded.getKeys(true));
+    }
+
+    @DisplayName("LazyYamlConfiguration.saveToString(): Saving an unchanged configuration reproduces the file")
+    @Test
+    void whenSaveToString_ifUnchanged_thenOriginalTextIsKept() {
+        lazy.getInt("shops.weapons.price");
+        lazy.evictColdSections();
+        lazy.evictColdSections();
+
+        String saved = lazy.saveToString();
+
+        assertTrue(saved.contains(SHOPS), saved);
+        assertTrue(saved.contains("ranks:\n  default:\n    permissions: []\n"), saved);
+    }
+
+    @DisplayName("LazyYamlConfiguration.load(): Documents using anchors and aliases are left to a full parse")
+    @Test
+    void whenLoad_ifDocumentUsesAliases_thenNullIsReturned() {
+        assertNull(LazyYamlConfiguration.load("base: &base\n  a: 1\nderived: *base\n", LOGGER));
+    }
+}